@@ -0,0 +1,148 @@
+package bench;
+
+import controller.Fen;
+import controller.Game;
+import controller.MoveUndo;
+import engine.Evaluator;
+import engine.TranspositionTable;
+import java.util.ArrayList;
+import java.util.List;
+import model.board.Board;
+import model.board.MoveList;
+import model.board.Position;
+import model.pieces.Piece;
+import view.ImageUtil;
+
+/**
+ * Suíte de microbenchmarks dos caminhos quentes de Game, Board, peças e ImageUtil,
+ * executada sobre um corpus fixo de posições de meio-jogo e de final.
+ *
+ * Uso (sem interface gráfica):
+ *   java -cp bin bench.Benchmarks [filtro]
+ * O filtro (opcional) seleciona os benchmarks cujo nome contém o texto.
+ */
+public final class Benchmarks {
+
+    static final String[] MIDDLEGAMES = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+            "r2q1rk1/1b1nbppp/pp1ppn2/8/2PNP3/1PN1B3/P3BPPP/R2Q1RK1 w - - 0 11",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+    };
+
+    static final String[] ENDGAMES = {
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "8/5pk1/6p1/R7/5P2/6P1/r5K1/8 w - - 0 40",
+            "8/8/4k3/8/2p5/8/B2P2K1/8 w - - 0 1",
+            "8/8/8/4k3/8/8/3QK3/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", // mate
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1",                                 // afogamento
+    };
+
+    private Benchmarks() { }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        System.setProperty("java.awt.headless", "true");
+
+        List<Game> corpus = new ArrayList<>();
+        for (String fen : MIDDLEGAMES) corpus.add(Fen.parse(fen));
+        for (String fen : ENDGAMES) corpus.add(Fen.parse(fen));
+        Game[] games = corpus.toArray(new Game[0]);
+        int n = games.length;
+
+        // Peças do lado a jogar, por posição, para o benchmark de lances por casa
+        List<List<Position>> ownSquares = new ArrayList<>();
+        for (Game g : games) {
+            List<Position> sq = new ArrayList<>();
+            for (Piece p : g.getBoard().pieces(g.isWhiteToMove())) sq.add(p.getPosition());
+            ownSquares.add(sq);
+        }
+
+        MicroBench mb = new MicroBench(3, 5, 500);
+        MicroBench.printHeader();
+
+        bench(mb, filter, "Game.legalMovesFromWithSpecials", i -> {
+            int k = i % n;
+            long acc = 0;
+            for (Position from : ownSquares.get(k)) acc += games[k].legalMovesFromWithSpecialsForGui(from).size();
+            return acc;
+        });
+        bench(mb, filter, "Game.getAllPossibleMoves", i -> games[i % n].getAllPossibleMoves().size());
+        MoveList buffer = new MoveList();
+        bench(mb, filter, "Game.generateMoves (int[])", i -> {
+            buffer.clear();
+            games[i % n].generateMoves(buffer);
+            return buffer.size();
+        });
+        // Promoções: a peça nova vem do pool do Game; getStatus passa pelo material insuficiente
+        Game promo = Fen.parse("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1");
+        MoveList promoMoves = new MoveList();
+        promo.generateMoves(promoMoves);
+        MoveUndo promoUndo = new MoveUndo();
+        bench(mb, filter, "Game.makeMove/unmakeMove (promoções)", i -> {
+            promo.makeMove(promoMoves.get(i % promoMoves.size()), promoUndo);
+            int s = promo.getStatus().ordinal();
+            promo.unmakeMove(promoUndo);
+            return s;
+        });
+        bench(mb, filter, "Board.isSquareAttacked", i -> {
+            Board b = games[(i >>> 6) % n].getBoard();
+            return b.isSquareAttacked(i & 63, (i & 64) == 0) ? 1 : 0;
+        });
+        bench(mb, filter, "Game.inCheck", i -> {
+            Game g = games[i % n];
+            return g.inCheck(g.isWhiteToMove()) ? 1 : 0;
+        });
+        bench(mb, filter, "Game.isCheckmate", i -> {
+            Game g = games[i % n];
+            return g.isCheckmate(g.isWhiteToMove()) ? 1 : 0;
+        });
+        bench(mb, filter, "Game.isStalemate", i -> {
+            Game g = games[i % n];
+            return g.isStalemate(g.isWhiteToMove()) ? 1 : 0;
+        });
+        bench(mb, filter, "Board.copy", i -> {
+            Board copy = games[i % n].getBoard().copy();
+            MicroBench.objectSink = copy;
+            return copy.occupied();
+        });
+
+        String[] names = {"Pawn", "Knight", "Bishop", "Rook", "Queen", "King"};
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            List<Piece> pieces = new ArrayList<>();
+            for (Game g : games) {
+                for (Piece p : g.getBoard().pieces(true)) if (p.getType() == type) pieces.add(p);
+                for (Piece p : g.getBoard().pieces(false)) if (p.getType() == type) pieces.add(p);
+            }
+            Piece[] arr = pieces.toArray(new Piece[0]);
+            bench(mb, filter, names[type] + ".getPossibleMoves", i -> arr[i % arr.length].getPossibleMoves().size());
+        }
+
+        TranspositionTable tt = new TranspositionTable(16);
+        for (Game g : games) tt.store(g.positionKey(), 0, 0, 1, TranspositionTable.BOUND_EXACT);
+        bench(mb, filter, "TranspositionTable.probe", i -> tt.probe(games[i % n].positionKey()));
+
+        bench(mb, filter, "Evaluator.evaluate", i -> {
+            Game g = games[i % n];
+            return Evaluator.evaluate(g.getBoard(), g.isWhiteToMove());
+        });
+
+        String[] fens = new String[n];
+        for (int k = 0; k < n; k++) fens[k] = Fen.toFen(games[k]);
+        bench(mb, filter, "Fen.parse", i -> Fen.parse(fens[i % n]).positionKey());
+        bench(mb, filter, "Fen.toFen", i -> Fen.toFen(games[i % n]).length());
+
+        ImageUtil.getPieceIcon(true, "K", 80); // aquece o cache (carrega ou gera placeholder)
+        bench(mb, filter, "ImageUtil.getIcon (cache hit)", i -> {
+            Object icon = ImageUtil.getIcon("wK.png", 80);
+            return icon == null ? 0 : 1;
+        });
+    }
+
+    private static void bench(MicroBench mb, String filter, String name, MicroBench.Op op) {
+        if (name.contains(filter)) mb.run(name, op);
+    }
+}
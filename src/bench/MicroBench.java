@@ -0,0 +1,89 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Executor mínimo de microbenchmarks (sem dependências externas).
+ *
+ * Segue o modelo do JMH: iterações de aquecimento descartadas, iterações de medição
+ * de duração fixa, resultado em ns/op (média ± desvio entre iterações) e bytes
+ * alocados por operação (equivalente ao gc.alloc.rate.norm do profiler "gc"),
+ * lidos do contador de alocação por thread da JVM.
+ */
+final class MicroBench {
+
+    /** Operação medida; o índice permite alternar entre as posições do corpus. */
+    interface Op {
+        long run(int i);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Acumulador que impede o JIT de eliminar o trabalho medido (papel do Blackhole)
+    static long sink;
+    static Object objectSink;
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+
+    MicroBench(int warmupIterations, int measureIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    static void printHeader() {
+        System.out.printf("%-40s %14s %10s %12s%n", "Benchmark", "ns/op", "erro", "B/op");
+    }
+
+    /** Mede a operação e imprime uma linha de resultado. */
+    void run(String name, Op op) {
+        int batch = calibrate(op);
+        for (int i = 0; i < warmupIterations; i++) iteration(op, batch);
+
+        double[] nsPerOp = new double[measureIterations];
+        long totalOps = 0, totalBytes = 0;
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < measureIterations; i++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+            long ops = 0;
+            long start = System.nanoTime(), elapsed;
+            do {
+                ops += iteration(op, batch);
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+            totalBytes += THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+            totalOps += ops;
+            nsPerOp[i] = (double) elapsed / ops;
+        }
+
+        double mean = 0;
+        for (double v : nsPerOp) mean += v;
+        mean /= nsPerOp.length;
+        double var = 0;
+        for (double v : nsPerOp) var += (v - mean) * (v - mean);
+        double err = nsPerOp.length > 1 ? Math.sqrt(var / (nsPerOp.length - 1)) : 0;
+
+        System.out.printf("%-40s %14.1f %10.1f %12.1f%n", name, mean, err, (double) totalBytes / totalOps);
+    }
+
+    private int iteration(Op op, int batch) {
+        long acc = 0;
+        for (int i = 0; i < batch; i++) acc += op.run(i);
+        sink += acc;
+        return batch;
+    }
+
+    /** Escolhe um lote com ~1 ms de duração, para amortizar a leitura do relógio. */
+    private int calibrate(Op op) {
+        int batch = 1;
+        while (true) {
+            long start = System.nanoTime();
+            iteration(op, batch);
+            if (System.nanoTime() - start > 1_000_000L || batch >= (1 << 24)) return batch;
+            batch <<= 1;
+        }
+    }
+}
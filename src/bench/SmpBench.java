@@ -0,0 +1,56 @@
+package bench;
+
+import controller.Fen;
+import engine.ParallelSearch;
+import engine.Search;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+
+/**
+ * Vazão da busca paralela (Lazy SMP): busca cada posição de meio-jogo do corpus
+ * por um tempo fixo com 1, 2, 4... threads e compara os nós por segundo (somados
+ * de todas as threads) e a profundidade alcançada com os da busca de uma thread.
+ *
+ * Uso (sem interface gráfica):
+ *   java -cp bin bench.SmpBench [ms por posição] [threads máx.]
+ * Padrão: 2000 ms e o número de processadores.
+ */
+public final class SmpBench {
+
+    private static final int HASH_MB = 64;
+
+    private SmpBench() { }
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        run(1, Math.min(millis, 500)); // aquecimento do JIT, descartado
+
+        System.out.printf("%-8s %14s %10s %12s%n", "Threads", "nps", "speedup", "prof. média");
+        double base = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            double[] r = run(threads, millis);
+            if (threads == 1) base = r[0];
+            System.out.printf("%-8d %,14.0f %9.2fx %12.1f%n", threads, r[0], r[0] / base, r[1]);
+            if (threads >= maxThreads) break;
+        }
+    }
+
+    // Nós por segundo e profundidade média sobre o corpus; TT nova por posição, como numa partida nova
+    private static double[] run(int threads, long millis) {
+        long nodes = 0, time = 0, depth = 0;
+        for (String fen : Benchmarks.MIDDLEGAMES) {
+            ParallelSearch search = new ParallelSearch(new TranspositionTable(HASH_MB), threads);
+            try {
+                Search.Result r = search.search(Fen.parse(fen), new SearchLimits().moveTime(millis));
+                nodes += r.nodes;
+                time += Math.max(1, r.timeMillis);
+                depth += r.depth;
+            } finally {
+                search.shutdown();
+            }
+        }
+        return new double[] {nodes * 1000.0 / time, (double) depth / Benchmarks.MIDDLEGAMES.length};
+    }
+}
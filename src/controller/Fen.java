@@ -0,0 +1,167 @@
+package controller;
+
+import model.board.Board;
+import model.board.Position;
+import model.board.Zobrist;
+import model.pieces.*;
+
+/**
+ * Leitura e escrita de posições em FEN (Forsyth-Edwards Notation).
+ *
+ * O parser percorre a string uma vez, caractere a caractere (sem regex nem
+ * split), e monta o Board e o estado do Game diretamente: lado a jogar,
+ * direitos de roque (mapeados em hasMoved de rei e torres), alvo de en passant
+ * e os contadores de meio-lance e de lance. Campos finais ausentes assumem os
+ * valores usuais ("w", "-", "-", 0, 1); FEN malformada gera IllegalArgumentException.
+ */
+public final class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() { /* utilitário */ }
+
+    /** Monta um Game na posição descrita pela FEN. */
+    public static Game parse(String fen) {
+        Board b = new Board();
+        int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        // 1. Peças, da fileira 8 (linha 0) para a 1
+        int row = 0, col = 0;
+        for (; i < n && fen.charAt(i) != ' '; i++) {
+            char ch = fen.charAt(i);
+            if (ch == '/') {
+                if (col != 8 || ++row > 7) throw invalid(fen);
+                col = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                col += ch - '0';
+                if (col > 8) throw invalid(fen);
+            } else {
+                if (col > 7) throw invalid(fen);
+                b.set(Position.of(row, col++), piece(b, ch, row, fen));
+            }
+        }
+        if (row != 7 || col != 8) throw invalid(fen);
+
+        // 2. Lado a jogar
+        i = skipSpaces(fen, i);
+        boolean whiteToMove = true;
+        if (i < n) {
+            char side = fen.charAt(i++);
+            if (side == 'b') whiteToMove = false;
+            else if (side != 'w') throw invalid(fen);
+        }
+
+        // 3. Roque: rei e torre da ala ficam "sem mover"
+        i = skipSpaces(fen, i);
+        for (; i < n && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K': unmove(b, 60); unmove(b, 63); break;
+                case 'Q': unmove(b, 60); unmove(b, 56); break;
+                case 'k': unmove(b, 4); unmove(b, 7); break;
+                case 'q': unmove(b, 4); unmove(b, 0); break;
+                case '-': break;
+                default: throw invalid(fen);
+            }
+        }
+
+        // 4. En passant
+        i = skipSpaces(fen, i);
+        Position ep = null;
+        if (i < n && fen.charAt(i) != '-') {
+            if (i + 1 >= n) throw invalid(fen);
+            int file = fen.charAt(i) - 'a';
+            int rank = fen.charAt(i + 1) - '1';
+            if (file < 0 || file > 7 || (rank != 2 && rank != 5)) throw invalid(fen);
+            ep = Position.of(7 - rank, file);
+            i += 2;
+        } else if (i < n) {
+            i++;
+        }
+
+        // 5-6. Contadores
+        i = skipSpaces(fen, i);
+        int halfmove = 0;
+        for (; i < n && fen.charAt(i) != ' '; i++) halfmove = halfmove * 10 + digit(fen, i);
+        i = skipSpaces(fen, i);
+        int fullmove = 0;
+        for (; i < n && fen.charAt(i) != ' '; i++) fullmove = fullmove * 10 + digit(fen, i);
+
+        Game g = new Game(b);
+        g.setState(whiteToMove, ep);
+        g.setCounters(halfmove, Math.max(1, fullmove));
+        return g;
+    }
+
+    /** FEN da posição atual do jogo (alvo de en passant sempre que houve avanço duplo). */
+    public static String toFen(Game g) {
+        Board b = g.getBoard();
+        StringBuilder sb = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece p = b.get(row * 8 + col);
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append((char) ('0' + empty));
+                empty = 0;
+                char c = p.getSymbol().charAt(0);
+                sb.append(p.isWhite() ? c : Character.toLowerCase(c));
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (row < 7) sb.append('/');
+        }
+
+        sb.append(g.isWhiteToMove() ? " w " : " b ");
+        int rights = g.castlingRights();
+        if (rights == 0) sb.append('-');
+        if ((rights & Zobrist.WHITE_KING_SIDE) != 0) sb.append('K');
+        if ((rights & Zobrist.WHITE_QUEEN_SIDE) != 0) sb.append('Q');
+        if ((rights & Zobrist.BLACK_KING_SIDE) != 0) sb.append('k');
+        if ((rights & Zobrist.BLACK_QUEEN_SIDE) != 0) sb.append('q');
+
+        Position ep = g.enPassantTarget();
+        sb.append(' ').append(ep == null ? "-" : ep.toString());
+        sb.append(' ').append(g.getHalfmoveClock());
+        sb.append(' ').append(g.getFullmoveNumber());
+        return sb.toString();
+    }
+
+    // Peão fora da casa inicial já se moveu; rei e torre só "não se moveram" se o roque disser
+    private static Piece piece(Board b, char ch, int row, String fen) {
+        boolean white = ch < 'a';
+        Piece p;
+        switch (white ? ch : (char) (ch - ('a' - 'A'))) {
+            case 'P': p = new Pawn(b, white); p.setMoved(row != (white ? 6 : 1)); break;
+            case 'N': p = new Knight(b, white); break;
+            case 'B': p = new Bishop(b, white); break;
+            case 'R': p = new Rook(b, white); p.setMoved(true); break;
+            case 'Q': p = new Queen(b, white); break;
+            case 'K': p = new King(b, white); p.setMoved(true); break;
+            default: throw invalid(fen);
+        }
+        return p;
+    }
+
+    private static void unmove(Board b, int sq) {
+        Piece p = b.get(sq);
+        if (p != null) p.setMoved(false);
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && s.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    private static int digit(String s, int i) {
+        char c = s.charAt(i);
+        if (c < '0' || c > '9') throw invalid(s);
+        return c - '0';
+    }
+
+    private static IllegalArgumentException invalid(String fen) {
+        return new IllegalArgumentException("FEN inválida: " + fen);
+    }
+}
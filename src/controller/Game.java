@@ -1,12 +1,22 @@
 package controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import javax.swing.JOptionPane;
+import engine.OpeningBook;
+import engine.ParallelSearch;
+import engine.Search;
+import engine.SearchLimits;
+import engine.Tablebases;
+import engine.TranspositionTable;
+import model.board.Bitboards;
 import model.board.Board;
 import model.board.Move;
+import model.board.MoveList;
+import model.board.PackedMove;
 import model.board.Position;
+import model.board.Zobrist;
 import model.pieces.*;
 
 public class Game {
@@ -18,24 +28,73 @@ public class Game {
     private Position enPassantTarget = null;
     private final List<String> history = new ArrayList<>();
 
+    // Castling rights (Zobrist bits) derived from hasMoved, then kept up to date per move,
+    // and the side/castling/en-passant part of the Zobrist key (pieces live in Board)
+    private int castlingRights;
+    private long stateKey;
+
+    // Halfmove clock (fifty-move rule) and the keys of every earlier position (repetitions);
+    // the status of the current position is computed on demand and dropped on every move
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long[] keyHistory = new long[256];
+    private int keyCount;
+    private GameStatus status;
+
+    // Reused by legality tests (make/unmake in place, no allocation per candidate)
+    private final MoveUndo scratchUndo = new MoveUndo();
+
+    // Promotion pieces of the current board, per color and type: taken by makeMove and
+    // returned by unmakeMove, so promotions in the search do not allocate
+    private static final int POOL_SIZE = 8;
+    private final Piece[][][] promotionPool = new Piece[2][Piece.QUEEN + 1][POOL_SIZE];
+    private final int[][] promotionPoolCount = new int[2][Piece.QUEEN + 1];
+    private final LegalMoveGenerator generator = new LegalMoveGenerator(this);
+
+    private final List<GameListener> listeners = new ArrayList<>();
+
     // Control players
     private boolean humanIsWhite = true;
     private boolean vsAI = true;
 
+    // AI search settings; the transposition table is created on first use and kept between moves
+    private static final int AI_HASH_MB = 16;
+    private SearchLimits aiLimits = SearchLimits.forLevel(5);
+    private int aiThreads = 1;
+    private volatile ParallelSearch aiSearch; // created by the thread running getAIMove, stopped from the GUI
+    private OpeningBook book;
+    private Tablebases tablebases;
+    private Tablebases.Scratch tablebaseScratch; // per Game, so each search worker has its own
+
+    // a8 (bit 0) is a light square
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
     public Game() {
         this.board = new Board();
+        resetPromotionPool();
         setupPieces();
+        resetDerivedState();
     }
 
-    // Private ctor for snapshots if needed
-    private Game(boolean empty) { /* intentionally empty */ }
+    // Empty game around an already filled board (FEN loader, copy()); callers set the state
+    Game(Board board) {
+        this.board = board;
+        resetPromotionPool();
+    }
 
     // Public getters
     public Board getBoard() { return board; }
     public boolean isWhiteToMove() { return whiteToMove; }
     public boolean isGameOver() { return gameOver; }
+    /** Moves played through makeMove(Move) (or loaded from PGN), in SAN. */
     public List<String> history() { return Collections.unmodifiableList(history); }
 
+    /**
+     * 64-bit Zobrist key of the current position: piece placement (kept by Board),
+     * side to move, castling rights and en-passant file (only when a capture is possible).
+     */
+    public long positionKey() { return board.zobristKey() ^ stateKey; }
+
     public void setHumanColor(boolean isWhite) {
         this.humanIsWhite = isWhite;
         this.whiteToMove = true; // whites always start
@@ -43,63 +102,240 @@ public class Game {
 
     public void setVsAI(boolean vsAI) { this.vsAI = vsAI; }
 
+    public void addListener(GameListener listener) { listeners.add(listener); }
+    public void removeListener(GameListener listener) { listeners.remove(listener); }
+
     public void newGame() {
         this.board = new Board();
+        resetPromotionPool();
         this.whiteToMove = true;
         this.gameOver = false;
         this.enPassantTarget = null;
         this.history.clear();
         setupPieces();
+        resetDerivedState();
     }
 
     // --- Provide all possible moves for the current side (used by AI)
     public List<Move> getAllPossibleMoves() {
-        List<Move> moves = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position from = new Position(r, c);
-                Piece p = board.get(from);
-                if (p != null && p.isWhite() == whiteToMove) {
-                    List<Position> poss = legalMovesFromWithSpecials(from);
-                    for (Position to : poss) {
-                        Piece captured = board.get(to);
-                        moves.add(Move.normal(from, to, p, captured));
-                    }
+        MoveList list = new MoveList();
+        generateMoves(list);
+        List<Move> moves = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) moves.add(toMove(list.get(i)));
+        return moves;
+    }
+
+    /**
+     * Allocation-free legal move generation: appends every legal move of the side
+     * to move to {@code out} as a {@link PackedMove} int. Each distinct game move
+     * appears exactly once (one entry per promotion piece; castling and en passant flagged).
+     */
+    public void generateMoves(MoveList out) {
+        generator.prepare(whiteToMove);
+        for (long own = board.occupancy(whiteToMove); own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            int type = board.get(from).getType();
+            for (long t = generator.targets(from); t != 0; t &= t - 1) {
+                addMove(out, type, from, Long.numberOfTrailingZeros(t));
+            }
+        }
+    }
+
+    /**
+     * Legal captures (en passant included) and promotions only, for the quiescence search.
+     * Same encoding and order as {@link #generateMoves(MoveList)}, minus the quiet moves.
+     */
+    public void generateCaptures(MoveList out) {
+        generator.prepare(whiteToMove);
+        long enemy = board.occupancy(!whiteToMove);
+        long pawnTargets = enemy | (whiteToMove ? 0xFFL : 0xFFL << 56)
+                | (enPassantTarget == null ? 0L : 1L << enPassantTarget.getIndex());
+        for (long own = board.occupancy(whiteToMove); own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            int type = board.get(from).getType();
+            long t = generator.targets(from) & (type == Piece.PAWN ? pawnTargets : enemy);
+            for (; t != 0; t &= t - 1) {
+                addMove(out, type, from, Long.numberOfTrailingZeros(t));
+            }
+        }
+    }
+
+    private void addMove(MoveList out, int type, int from, int to) {
+        Piece target = board.get(to);
+        int captured = target == null ? -1 : target.getType();
+        if (type == Piece.PAWN) {
+            if (to < 8 || to >= 56) {
+                for (int promo = Piece.QUEEN; promo >= Piece.KNIGHT; promo--) {
+                    out.add(PackedMove.encode(from, to, type, captured, promo, 0));
                 }
+                return;
+            }
+            if (target == null && (from & 7) != (to & 7)) {
+                out.add(PackedMove.encode(from, to, type, Piece.PAWN, 0, PackedMove.FLAG_EN_PASSANT));
+                return;
+            }
+            if (Math.abs(to - from) == 16) {
+                out.add(PackedMove.encode(from, to, type, -1, 0, PackedMove.FLAG_DOUBLE_PUSH));
+                return;
             }
+        } else if (type == Piece.KING && Math.abs(to - from) == 2) {
+            out.add(PackedMove.encode(from, to, type, -1, 0, PackedMove.FLAG_CASTLE));
+            return;
         }
-        return moves;
+        out.add(PackedMove.encode(from, to, type, captured, 0, 0));
     }
 
-    // Simple AI: prefer captures, otherwise random
-    public Move getAIMove() {
-        List<Move> all = getAllPossibleMoves();
-        if (all.isEmpty()) return null;
-
-        // captures first
-        Move bestCap = null;
-        int bestVal = -1;
-        for (Move m : all) {
-            if (m.getCaptured() != null) {
-                int v = pieceValue(m.getCaptured());
-                if (v > bestVal) { bestVal = v; bestCap = m; }
+    /** Decodes a packed move of the current position into a {@link Move} view (GUI/AI). */
+    public Move toMove(int m) {
+        Position from = Position.of(PackedMove.from(m));
+        Position to = Position.of(PackedMove.to(m));
+        Piece p = board.get(from);
+        if (PackedMove.isPromotion(m)) return Move.promotion(from, to, p, board.get(to), PackedMove.promotionChar(m));
+        if (PackedMove.isEnPassant(m)) return Move.enPassant(from, to, p, board.get(Position.of(from.getRow(), to.getColumn())));
+        if (PackedMove.isCastle(m)) return Move.castle(from, to, p, to.getColumn() == 6);
+        return Move.normal(from, to, p, board.get(to));
+    }
+
+    /**
+     * Encodes a {@link Move} of the current position. Castling, en passant and
+     * promotion are recognized from the board (queen when no promotion is given),
+     * so plain {@code Move.normal} values from the GUI encode correctly.
+     */
+    public int encode(Move move) {
+        return encode(move.getFrom().getIndex(), move.getTo().getIndex(), move.getPromotion());
+    }
+
+    int encode(int from, int to, Character promotion) {
+        Piece p = board.get(from);
+        int type = p.getType();
+        Piece target = board.get(to);
+        int captured = target == null ? -1 : target.getType();
+        if (type == Piece.PAWN) {
+            if (to < 8 || to >= 56) {
+                return PackedMove.encode(from, to, type, captured, PackedMove.promotionType(promotion), 0);
+            }
+            if (target == null && (from & 7) != (to & 7) && Position.of(to) == enPassantTarget) {
+                return PackedMove.encode(from, to, type, Piece.PAWN, 0, PackedMove.FLAG_EN_PASSANT);
             }
+            if (Math.abs(to - from) == 16) return PackedMove.encode(from, to, type, -1, 0, PackedMove.FLAG_DOUBLE_PUSH);
+        } else if (type == Piece.KING && Math.abs(to - from) == 2) {
+            return PackedMove.encode(from, to, type, -1, 0, PackedMove.FLAG_CASTLE);
         }
-        if (bestCap != null) return bestCap;
+        return PackedMove.encode(from, to, type, captured, 0, 0);
+    }
+
+    // AI: book move if the position is in the opening book; otherwise iterative-deepening
+    // alpha-beta on private copies (one per thread), so the GUI board is never touched
+    public Move getAIMove() {
+        return getAIMove(copy());
+    }
 
-        return all.get((int)(Math.random()*all.size()));
+    /**
+     * AI move for a snapshot taken with copy() on the thread that owns this game. Only the
+     * snapshot is read (book probe included), so it may run on a worker thread while this
+     * game keeps serving the GUI; the move must then be applied on the owner thread.
+     */
+    public Move getAIMove(Game position) {
+        int bookMove = position.bookMove();
+        if (bookMove != PackedMove.NONE) return position.toMove(bookMove);
+        if (aiSearch == null) aiSearch = new ParallelSearch(new TranspositionTable(AI_HASH_MB), aiThreads);
+        Search.Result result = aiSearch.search(position, aiLimits);
+        return result.bestMove == PackedMove.NONE ? null : position.toMove(result.bestMove);
     }
 
-    private int pieceValue(Piece p) {
-        if (p == null) return 0;
-        switch (p.getSymbol()) {
-            case "P": return 1;
-            case "N": case "B": return 3;
-            case "R": return 5;
-            case "Q": return 9;
-            case "K": return 1000;
-            default: return 0;
+    /**
+     * Asks a getAIMove running on another thread to return as soon as possible (it then
+     * returns the best move found so far). Does nothing if no search is running.
+     */
+    public void stopAIMove() {
+        ParallelSearch s = aiSearch;
+        if (s != null) s.stop();
+    }
+
+    /** Number of search threads used by getAIMove (Lazy SMP, 1 = single-threaded). */
+    public void setAIThreads(int threads) {
+        this.aiThreads = Math.max(1, threads);
+        if (aiSearch != null) aiSearch.setThreads(aiThreads);
+    }
+
+    /** AI strength from 1 (weak, instant) to 10 (strong): see SearchLimits.forLevel. */
+    public void setAIStrength(int level) { this.aiLimits = SearchLimits.forLevel(level); }
+
+    public void setAILimits(SearchLimits limits) { this.aiLimits = limits; }
+
+    /** Opening book consulted by getAIMove before searching (null = always search). */
+    public void setOpeningBook(OpeningBook book) { this.book = book; }
+
+    /** Legal book move for the current position, or PackedMove.NONE (no book, or out of book). */
+    public int bookMove() {
+        if (book == null) return PackedMove.NONE;
+        int bm = book.probe(positionKey());
+        if (bm < 0) return PackedMove.NONE;
+        int from = OpeningBook.from(bm);
+        int to = OpeningBook.to(bm);
+        Piece p = board.get(from);
+        if (p == null || p.isWhite() != whiteToMove) return PackedMove.NONE;
+        // Polyglot writes castling as the king taking its own rook
+        Piece target = board.get(to);
+        if (p.getType() == Piece.KING && target != null && target.isWhite() == whiteToMove) {
+            to = to > from ? from + 2 : from - 2;
         }
+        generator.prepare(whiteToMove);
+        if ((generator.targets(from) & (1L << to)) == 0) return PackedMove.NONE;
+        int promo = OpeningBook.promotion(bm);
+        return encode(from, to, promo == 0 ? null : "?NBRQ".charAt(promo));
+    }
+
+    /** Endgame tablebases consulted by the search and by tablebaseVerdict (null = none). */
+    public void setTablebases(Tablebases tablebases) { this.tablebases = tablebases; }
+
+    /**
+     * Tablebase result for the side to move (see Tablebases.wdl/dtm), or Tablebases.UNKNOWN
+     * with no tablebases, too many pieces, castling rights left or an en passant capture
+     * available (the tables assume neither).
+     */
+    public int probeTablebase() {
+        if (tablebases == null || castlingRights != 0
+                || Long.bitCount(board.occupied()) > Tablebases.MAX_PIECES) return Tablebases.UNKNOWN;
+        if (enPassantTarget != null && (Bitboards.PAWN_ATTACKS[whiteToMove ? 1 : 0][enPassantTarget.getIndex()]
+                & board.bitboard(whiteToMove, Piece.PAWN)) != 0) return Tablebases.UNKNOWN;
+        if (tablebaseScratch == null) tablebaseScratch = new Tablebases.Scratch();
+        return tablebases.probe(board, whiteToMove, tablebaseScratch);
+    }
+
+    /** Tablebase verdict for the status bar ("Brancas dão mate em 5"), or null if not in the tables. */
+    public String tablebaseVerdict() {
+        if (getStatus().isGameOver()) return null;
+        int result = probeTablebase();
+        if (result == Tablebases.UNKNOWN) return null;
+        int wdl = Tablebases.wdl(result);
+        if (wdl == Tablebases.DRAW) return "Empate teórico";
+        boolean whiteWins = (wdl == Tablebases.WIN) == whiteToMove;
+        int moves = (Tablebases.dtm(result) + 1) / 2;
+        return (whiteWins ? "Brancas" : "Pretas") + " dão mate em " + moves;
+    }
+
+    /** Independent copy of the position and game state (the search plays on it in place). */
+    public Game copy() {
+        Game g = new Game(board.copy());
+        g.whiteToMove = whiteToMove;
+        g.gameOver = gameOver;
+        g.enPassantTarget = enPassantTarget;
+        g.history.addAll(history);
+        g.castlingRights = castlingRights;
+        g.stateKey = stateKey;
+        g.halfmoveClock = halfmoveClock;
+        g.fullmoveNumber = fullmoveNumber;
+        g.keyHistory = Arrays.copyOf(keyHistory, keyHistory.length);
+        g.keyCount = keyCount;
+        g.status = status;
+        g.humanIsWhite = humanIsWhite;
+        g.vsAI = vsAI;
+        g.aiLimits = aiLimits;
+        g.aiThreads = aiThreads;
+        g.book = book;
+        g.tablebases = tablebases;
+        return g;
     }
 
     public boolean makeMove(Move move) {
@@ -112,346 +348,363 @@ public class Game {
         List<Position> legal = legalMovesFromWithSpecials(from);
         if (!legal.contains(to)) return false;
 
-        boolean isPawn = p instanceof Pawn;
-        boolean isKing = p instanceof King;
-        int dCol = Math.abs(to.getColumn() - from.getColumn());
-        Piece capturedBefore = board.get(to);
-
-        // Castling
-        if (isKing && dCol == 2) {
-            int row = from.getRow();
-            board.set(to, p); board.set(from, null); p.setMoved(true);
-            if (to.getColumn() == 6) {
-                Piece rook = board.get(new Position(row, 7));
-                board.set(new Position(row, 5), rook);
-                board.set(new Position(row, 7), null);
-                if (rook != null) rook.setMoved(true);
-            } else {
-                Piece rook = board.get(new Position(row, 0));
-                board.set(new Position(row, 3), rook);
-                board.set(new Position(row, 0), null);
-                if (rook != null) rook.setMoved(true);
-            }
-            enPassantTarget = null;
-            whiteToMove = !whiteToMove;
-            if (isCheckmate(whiteToMove)) { gameOver=true; }
-            return true;
+        // Promotion: the piece comes from the move itself (queen when unspecified)
+        if (p.getType() == Piece.PAWN && (p.isWhite() ? to.getRow() == 0 : to.getRow() == 7)) {
+            Character c = move.getPromotion();
+            char promo = c == null ? 'Q' : Character.toUpperCase(c);
+            if ("RBN".indexOf(promo) < 0) promo = 'Q';
+            move = Move.promotion(from, to, p, board.get(to), promo);
         }
 
-        // En passant
-        boolean diagonal = from.getColumn() != to.getColumn();
-        boolean toIsEmpty = board.get(to) == null;
-        boolean isEnPassant = isPawn && diagonal && toIsEmpty && to.equals(enPassantTarget);
+        int packed = encode(move);
+        StringBuilder san = new StringBuilder(8);
+        San.appendMove(this, packed, san);
 
-        if (isEnPassant) {
-            board.set(to, p);
-            board.set(from, null);
-            int dir = p.isWhite() ? 1 : -1;
-            Position victim = new Position(to.getRow() + dir, to.getColumn());
-            board.set(victim, null);
-            p.setMoved(true);
-            enPassantTarget = null;
-            whiteToMove = !whiteToMove;
-            if (isCheckmate(whiteToMove)) { gameOver = true; }
-            return true;
+        MoveUndo undo = new MoveUndo();
+        makeMove(packed, undo);
+        if (undo.captured instanceof King) { gameOver = true; }
+        San.appendCheck(this, san);
+        addHistory(san.toString());
+
+        // Check game state for the side now to move; listeners report it (e.g. the GUI)
+        GameStatus s = getStatus();
+        if (s.isGameOver()) gameOver = true;
+        for (GameListener l : listeners) l.onMoveMade(move, s);
+
+        return true;
+    }
+
+    /** Reversible move primitive for {@link Move} values; see {@link #makeMove(int, MoveUndo)}. */
+    public void makeMove(Move move, MoveUndo undo) {
+        makeMove(encode(move), undo);
+    }
+
+    /**
+     * Reversible move primitive: plays the packed move without legality checks and
+     * records in {@code undo} everything needed by {@link #unmakeMove(MoveUndo)}.
+     * Castling, en passant and promotion are taken from the move flags.
+     */
+    public void makeMove(int move, MoveUndo undo) {
+        int fromSq = PackedMove.from(move);
+        int toSq = PackedMove.to(move);
+        Position from = Position.of(fromSq);
+        Position to = Position.of(toSq);
+        Piece p = board.get(fromSq);
+
+        undo.from = from;
+        undo.to = to;
+        undo.moved = p;
+        undo.movedBefore = p.hasMoved();
+        undo.enPassantBefore = enPassantTarget;
+        undo.promoted = null;
+        undo.rook = null;
+        undo.castlingBefore = castlingRights;
+        undo.stateKeyBefore = stateKey;
+        undo.halfmoveBefore = halfmoveClock;
+        if (!p.isWhite()) fullmoveNumber++;
+        if (keyCount == keyHistory.length) keyHistory = Arrays.copyOf(keyHistory, keyCount * 2);
+        keyHistory[keyCount++] = positionKey();
+
+        Position capturedAt = to;
+        Piece captured;
+        if (PackedMove.isEnPassant(move)) {
+            capturedAt = Position.of(from.getRow(), to.getColumn());
+            captured = board.remove(capturedAt);
+        } else {
+            captured = board.get(toSq);
         }
+        undo.captured = captured;
+        undo.capturedAt = capturedAt;
 
-        // Promotion
-        if (isPawn && (p.isWhite() ? to.getRow() == 0 : to.getRow() == 7)) {
-            String[] options = {"Rainha", "Torre", "Bispo", "Cavalo"};
-            String choice = (String) JOptionPane.showInputDialog(
-                    null,
-                    "Escolha a peça para promoção:",
-                    "Promoção de Peão",
-                    JOptionPane.PLAIN_MESSAGE,
-                    null,
-                    options,
-                    options[0]
-            );
-
-            Piece np;
-            switch (choice) {
-                case "Torre": np = new Rook(board, p.isWhite()); break;
-                case "Bispo": np = new Bishop(board, p.isWhite()); break;
-                case "Cavalo": np = new Knight(board, p.isWhite()); break;
-                default: np = new Queen(board, p.isWhite()); break;
-            }
+        board.remove(from);
+        if (PackedMove.isPromotion(move)) {
+            Piece np = promotionPiece(PackedMove.promotion(move), p.isWhite());
             np.setMoved(true);
-            board.set(from, null);
             board.set(to, np);
-
-            if (capturedBefore instanceof King) { gameOver = true; }
-            whiteToMove = !whiteToMove;
-            enPassantTarget = null;
-            if (isCheckmate(whiteToMove)) { gameOver = true; }
-            return true;
+            undo.promoted = np;
+        } else {
+            board.set(to, p);
         }
-
-        // Normal move
-        board.set(to, p);
-        board.set(from, null);
         p.setMoved(true);
 
-        if (isPawn && Math.abs(to.getRow() - from.getRow()) == 2) {
-            int mid = (to.getRow() + from.getRow())/2;
-            enPassantTarget = new Position(mid, from.getColumn());
-        } else { enPassantTarget = null; }
+        // Castling: king moves two files, rook jumps over it
+        if (PackedMove.isCastle(move)) {
+            int row = from.getRow();
+            boolean kingSide = to.getColumn() == 6;
+            Position rookFrom = Position.of(row, kingSide ? 7 : 0);
+            Position rookTo = Position.of(row, kingSide ? 5 : 3);
+            Piece rook = board.remove(rookFrom);
+            if (rook != null) {
+                undo.rook = rook;
+                undo.rookFrom = rookFrom;
+                undo.rookTo = rookTo;
+                undo.rookMovedBefore = rook.hasMoved();
+                board.set(rookTo, rook);
+                rook.setMoved(true);
+            }
+        }
 
-        // Switch side and check game state
+        enPassantTarget = PackedMove.isDoublePush(move) ? Position.of((fromSq + toSq) >>> 1) : null;
         whiteToMove = !whiteToMove;
-        if (isCheckmate(whiteToMove)) {
-            gameOver = true;
-        } else if (isStalemate(whiteToMove)) {
-            gameOver = true;
-            JOptionPane.showMessageDialog(null, "Empate por xeque-pato!");
+        castlingRights &= Zobrist.CASTLING_MASK[fromSq] & Zobrist.CASTLING_MASK[toSq];
+        stateKey = computeStateKey();
+        halfmoveClock = (captured != null || p.getType() == Piece.PAWN) ? 0 : halfmoveClock + 1;
+        status = null;
+    }
+
+    /** Restores the position saved by {@link #makeMove(Move, MoveUndo)}. */
+    public void unmakeMove(MoveUndo undo) {
+        if (undo.rook != null) {
+            board.remove(undo.rookTo);
+            board.set(undo.rookFrom, undo.rook);
+            undo.rook.setMoved(undo.rookMovedBefore);
         }
+        board.remove(undo.to);
+        if (undo.promoted != null) releasePromotionPiece(undo.promoted);
+        board.set(undo.from, undo.moved);
+        undo.moved.setMoved(undo.movedBefore);
+        if (undo.captured != null) board.set(undo.capturedAt, undo.captured);
 
-        return true;
+        enPassantTarget = undo.enPassantBefore;
+        whiteToMove = !whiteToMove;
+        castlingRights = undo.castlingBefore;
+        stateKey = undo.stateKeyBefore;
+        halfmoveClock = undo.halfmoveBefore;
+        if (!undo.moved.isWhite()) fullmoveNumber--;
+        keyCount--;
+        status = null;
     }
 
-    public boolean inCheck(boolean whiteSide) {
-        Position k = findKing(whiteSide);
-        if (k == null) return true;
-        return isSquareAttacked(k, whiteSide);
+    // Recomputes castling rights from the moved flags and the state key, and starts a
+    // fresh move history (after setup/load)
+    private void resetDerivedState() {
+        int rights = 0;
+        if (unmoved(60, true, Piece.KING)) {
+            if (unmoved(63, true, Piece.ROOK)) rights |= Zobrist.WHITE_KING_SIDE;
+            if (unmoved(56, true, Piece.ROOK)) rights |= Zobrist.WHITE_QUEEN_SIDE;
+        }
+        if (unmoved(4, false, Piece.KING)) {
+            if (unmoved(7, false, Piece.ROOK)) rights |= Zobrist.BLACK_KING_SIDE;
+            if (unmoved(0, false, Piece.ROOK)) rights |= Zobrist.BLACK_QUEEN_SIDE;
+        }
+        castlingRights = rights;
+        stateKey = computeStateKey();
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        keyCount = 0;
+        status = null;
     }
 
-    public boolean isCheckmate(boolean whiteSide) {
-        if (!inCheck(whiteSide)) return false;
-        for (int r=0;r<8;r++) for (int c=0;c<8;c++) {
-            Position from = new Position(r,c);
-            Piece piece = board.get(from);
-            if (piece != null && piece.isWhite() == whiteSide) {
-                for (Position to : legalMovesFromWithSpecials(from)) {
-                    Game g = snapshotShallow();
-                    g.forceMoveNoChecks(from, to);
-                    if (!g.inCheck(whiteSide)) return false;
-                }
-            }
-        }
-        return true;
+    private boolean unmoved(int sq, boolean white, int type) {
+        Piece p = board.get(sq);
+        return p != null && p.isWhite() == white && p.getType() == type && !p.hasMoved();
     }
 
-    // Detecta xeque-pato (stalemate)
-    public boolean isStalemate(boolean whiteSide) {
-        if (inCheck(whiteSide)) return false; // não é xeque-pato se estiver em xeque
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position from = new Position(r, c);
-                Piece piece = board.get(from);
-                if (piece != null && piece.isWhite() == whiteSide) {
-                    List<Position> moves = legalMovesFromWithSpecials(from);
-                    if (!moves.isEmpty()) return false;
-                }
-            }
+    private long computeStateKey() {
+        long key = (whiteToMove ? 0L : Zobrist.BLACK_TO_MOVE) ^ Zobrist.CASTLING[castlingRights];
+        if (enPassantTarget != null) {
+            // Only hash the en-passant file when a pawn of the side to move can actually capture
+            int ep = enPassantTarget.getIndex();
+            long capturers = Bitboards.PAWN_ATTACKS[whiteToMove ? Bitboards.BLACK : Bitboards.WHITE][ep]
+                    & board.bitboard(whiteToMove, Piece.PAWN);
+            if (capturers != 0) key ^= Zobrist.EN_PASSANT_FILE[ep & 7];
         }
-        return true;
+        return key;
     }
 
-    public List<Position> legalMovesFromWithSpecialsForGui(Position from) {
-        return new ArrayList<>(legalMovesFromWithSpecials(from));
+    private Piece promotionPiece(int type, boolean white) {
+        int c = white ? 0 : 1;
+        int n = promotionPoolCount[c][type];
+        if (n > 0) {
+            promotionPoolCount[c][type] = n - 1;
+            return promotionPool[c][type][n - 1];
+        }
+        return newPromotionPiece(type, white); // more simultaneous promotions than pooled
     }
 
-    private List<Position> legalMovesFromWithSpecials(Position from) {
-        Piece p = board.get(from);
-        if (p == null || p.isWhite() != whiteToMove) return List.of();
-
-        List<Position> moves = new ArrayList<>(p.getPossibleMoves());
+    private void releasePromotionPiece(Piece piece) {
+        int c = piece.isWhite() ? 0 : 1;
+        int type = piece.getType();
+        int n = promotionPoolCount[c][type];
+        if (n < POOL_SIZE) {
+            promotionPool[c][type][n] = piece;
+            promotionPoolCount[c][type] = n + 1;
+        }
+    }
 
-        // En Passant
-        if (p instanceof Pawn && enPassantTarget != null) {
-            int dir = p.isWhite() ? -1 : 1;
-            if (from.getRow() + dir == enPassantTarget.getRow()
-                    && Math.abs(from.getColumn() - enPassantTarget.getColumn()) == 1) {
-                Piece victim = board.get(new Position(enPassantTarget.getRow() - dir, enPassantTarget.getColumn()));
-                if (victim instanceof Pawn && victim.isWhite() != p.isWhite()) moves.add(enPassantTarget);
+    // Pieces are bound to their board: one ready instance per color and promotion type
+    private void resetPromotionPool() {
+        for (int c = 0; c < 2; c++) {
+            for (int type = Piece.KNIGHT; type <= Piece.QUEEN; type++) {
+                Arrays.fill(promotionPool[c][type], null);
+                promotionPool[c][type][0] = newPromotionPiece(type, c == 0);
+                promotionPoolCount[c][type] = 1;
             }
         }
+    }
 
-        // Castling
-        if (p instanceof King && !p.hasMoved() && !inCheck(p.isWhite())) {
-            int row = from.getRow();
-            if (canCastle(row, 4, 7, 5, 6, p.isWhite())) moves.add(new Position(row,6));
-            if (canCastle(row, 4, 0, 3, 2, p.isWhite())) moves.add(new Position(row,2));
+    private Piece newPromotionPiece(int type, boolean white) {
+        switch (type) {
+            case Piece.ROOK: return new Rook(board, white);
+            case Piece.BISHOP: return new Bishop(board, white);
+            case Piece.KNIGHT: return new Knight(board, white);
+            default: return new Queen(board, white);
         }
+    }
 
-        moves.removeIf(to -> {
-            Piece tgt = board.get(to);
-            return (tgt instanceof King) && (tgt.isWhite() != p.isWhite());
-        });
+    public boolean inCheck(boolean whiteSide) {
+        int k = board.kingSquare(whiteSide);
+        if (k < 0) return true;
+        return board.isSquareAttacked(k, !whiteSide);
+    }
 
-        moves.removeIf(to -> leavesKingInCheck(from, to));
-        return moves;
+    public boolean isCheckmate(boolean whiteSide) {
+        if (whiteSide == whiteToMove) return getStatus() == GameStatus.CHECKMATE;
+        return inCheck(whiteSide) && !hasAnyLegalMove(whiteSide);
     }
 
-    private boolean canCastle(int row, int kingCol, int rookCol, int passCol1, int passCol2, boolean whiteSide) {
-        Piece rook = board.get(new Position(row, rookCol));
-        if (!(rook instanceof Rook) || rook.hasMoved()) return false;
-        int step = (rookCol > kingCol) ? 1 : -1;
-        for (int c = kingCol + step; c != rookCol; c += step) if (board.get(new Position(row,c)) != null) return false;
-        Position p1 = new Position(row, passCol1);
-        Position p2 = new Position(row, passCol2);
-        if (isSquareAttacked(p1, whiteSide) || isSquareAttacked(p2, whiteSide)) return false;
-        return true;
+    // Detecta xeque-pato (stalemate)
+    public boolean isStalemate(boolean whiteSide) {
+        if (whiteSide == whiteToMove) return getStatus() == GameStatus.STALEMATE;
+        return !inCheck(whiteSide) && !hasAnyLegalMove(whiteSide);
     }
 
-    private boolean leavesKingInCheck(Position from, Position to) {
-        Piece mover = board.get(from);
-        if (mover == null) return true;
-        Game g = snapshotShallow();
-        g.forceMoveNoChecks(from, to);
-        return g.inCheck(mover.isWhite());
+    /**
+     * Status of the current position for the side to move. Computed once (one legal
+     * move scan plus the draw rules) and cached until the next make/unmake.
+     */
+    public GameStatus getStatus() {
+        if (status == null) status = computeStatus();
+        return status;
+    }
+
+    private GameStatus computeStatus() {
+        boolean anyMove = hasAnyLegalMove(whiteToMove); // prepare() also finds the checkers
+        boolean check = generator.inCheck();
+        if (!anyMove) return check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        if (halfmoveClock >= 100) return GameStatus.DRAW_FIFTY_MOVES;
+        if (repetitions() >= 2) return GameStatus.DRAW_THREEFOLD_REPETITION;
+        if (hasInsufficientMaterial()) return GameStatus.DRAW_INSUFFICIENT_MATERIAL;
+        return check ? GameStatus.CHECK : GameStatus.ONGOING;
     }
 
-    private boolean isSquareAttacked(Position sq, boolean sideToProtect) {
-        int r = sq.getRow(), c = sq.getColumn();
+    /** Plies since the last capture or pawn move. */
+    public int getHalfmoveClock() { return halfmoveClock; }
 
-        int dir = sideToProtect ? -1 : 1;
-        int rp = r - dir;
-        if (rp >= 0 && rp < 8) {
-            if (c-1 >=0) {
-                Piece p = board.get(new Position(rp,c-1));
-                if (p instanceof Pawn && p.isWhite() != sideToProtect) return true;
-            }
-            if (c+1 < 8) {
-                Piece p = board.get(new Position(rp,c+1));
-                if (p instanceof Pawn && p.isWhite() != sideToProtect) return true;
-            }
-        }
+    /** Move number as in FEN: starts at 1 and grows after each Black move. */
+    public int getFullmoveNumber() { return fullmoveNumber; }
 
-        int[][] KJUMPS = {{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}};
-        for (int[] d : KJUMPS) {
-            int rr = r + d[0], cc = c + d[1];
-            if (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr,cc));
-                if (p instanceof Knight && p.isWhite() != sideToProtect) return true;
-            }
+    /** How many times the current position occurred before (same side to move, within the fifty-move window). */
+    public int repetitions() {
+        long key = positionKey();
+        int n = 0;
+        for (int i = keyCount - 2, stop = Math.max(0, keyCount - halfmoveClock); i >= stop; i -= 2) {
+            if (keyHistory[i] == key) n++;
         }
+        return n;
+    }
 
-        for (int dr=-1; dr<=1; dr++) for (int dc=-1; dc<=1; dc++) {
-            if (dr==0 && dc==0) continue;
-            int rr = r+dr, cc = c+dc;
-            if (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr,cc));
-                if (p instanceof King && p.isWhite() != sideToProtect) return true;
-            }
+    /** True if the current position already occurred (the search scores it as a draw). */
+    public boolean isRepetition() {
+        long key = positionKey();
+        for (int i = keyCount - 2, stop = Math.max(0, keyCount - halfmoveClock); i >= stop; i -= 2) {
+            if (keyHistory[i] == key) return true;
         }
+        return false;
+    }
 
-        int[][] ROOK_DIRS = {{-1,0},{1,0},{0,-1},{0,1}};
-        for (int[] d : ROOK_DIRS) {
-            int rr=r+d[0], cc=c+d[1];
-            while (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr,cc));
-                if (p != null) {
-                    if (p.isWhite() != sideToProtect && (p instanceof Rook || p instanceof Queen)) return true;
-                    break;
-                }
-                rr += d[0]; cc += d[1];
-            }
-        }
+    // K vs K, a single minor piece, or bishops only, all on squares of one color
+    private boolean hasInsufficientMaterial() {
+        long heavy = board.bitboard(true, Piece.PAWN) | board.bitboard(true, Piece.ROOK) | board.bitboard(true, Piece.QUEEN)
+                | board.bitboard(false, Piece.PAWN) | board.bitboard(false, Piece.ROOK) | board.bitboard(false, Piece.QUEEN);
+        long knights = board.bitboard(true, Piece.KNIGHT) | board.bitboard(false, Piece.KNIGHT);
+        long bishops = board.bitboard(true, Piece.BISHOP) | board.bitboard(false, Piece.BISHOP);
+        if (heavy != 0) return false;
+        if (Long.bitCount(knights | bishops) <= 1) return true;
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
 
-        int[][] BISHOP_DIRS = {{-1,-1},{-1,1},{1,-1},{1,1}};
-        for (int[] d : BISHOP_DIRS) {
-            int rr=r+d[0], cc=c+d[1];
-            while (rr>=0 && rr<8 && cc>=0 && cc<8) {
-                Piece p = board.get(new Position(rr,cc));
-                if (p != null) {
-                    if (p.isWhite() != sideToProtect && (p instanceof Bishop || p instanceof Queen)) return true;
-                    break;
-                }
-                rr += d[0]; cc += d[1];
-            }
+    private boolean hasAnyLegalMove(boolean whiteSide) {
+        generator.prepare(whiteSide);
+        for (long own = board.occupancy(whiteSide); own != 0; own &= own - 1) {
+            if (generator.targets(Long.numberOfTrailingZeros(own)) != 0) return true;
         }
-
         return false;
     }
 
-    private void forceMoveNoChecks(Position from, Position to) {
-        Piece p = board.get(from);
-        if (p == null) return;
+    public List<Position> legalMovesFromWithSpecialsForGui(Position from) {
+        return new ArrayList<>(legalMovesFromWithSpecials(from));
+    }
 
-        int dCol = Math.abs(to.getColumn() - from.getColumn());
-        boolean isPawn = p instanceof Pawn;
-        boolean isKing = p instanceof King;
+    private List<Position> legalMovesFromWithSpecials(Position from) {
+        Piece p = board.get(from);
+        if (p == null || p.isWhite() != whiteToMove) return List.of();
 
-        boolean diagonal = from.getColumn() != to.getColumn();
-        boolean toIsEmpty = board.get(to) == null;
-        boolean ep = isPawn && diagonal && toIsEmpty && enPassantTarget != null && to.equals(enPassantTarget);
-        boolean castle = isKing && dCol == 2;
+        // Legal by construction: checks and pins are resolved once in prepare()
+        List<Position> moves = new ArrayList<>();
+        generator.prepare(whiteToMove);
+        Bitboards.addSquares(moves, generator.targets(from.getIndex()));
+        return moves;
+    }
 
-        board.set(to, p);
-        board.set(from, null);
-        p.setMoved(true);
+    boolean leavesKingInCheck(Position from, Position to) {
+        Piece mover = board.get(from);
+        if (mover == null) return true;
+        MoveUndo undo = scratchUndo;
+        makeMove(encode(from.getIndex(), to.getIndex(), null), undo);
+        boolean check = inCheck(mover.isWhite());
+        unmakeMove(undo);
+        return check;
+    }
 
-        if (ep) {
-            int dir = p.isWhite() ? 1 : -1;
-            Position victim = new Position(to.getRow() + dir, to.getColumn());
-            board.set(victim, null);
-        }
+    Position enPassantTarget() { return enPassantTarget; }
 
-        if (castle) {
-            int row = to.getRow();
-            if (to.getColumn() == 6) {
-                Piece rook = board.get(new Position(row,7));
-                board.set(new Position(row,5), rook);
-                board.set(new Position(row,7), null);
-                if (rook != null) rook.setMoved(true);
-            } else if (to.getColumn() == 2) {
-                Piece rook = board.get(new Position(row,0));
-                board.set(new Position(row,3), rook);
-                board.set(new Position(row,0), null);
-                if (rook != null) rook.setMoved(true);
-            }
-        }
-    }
+    int castlingRights() { return castlingRights; }
 
-    private Position findKing(boolean whiteSide) {
-        for (int r=0;r<8;r++) for (int c=0;c<8;c++) {
-            Position pos = new Position(r,c);
-            Piece p = board.get(pos);
-            if (p instanceof King && p.isWhite() == whiteSide) return pos;
-        }
-        return null;
+    // FEN counters; set after setState(), which starts a fresh history
+    void setCounters(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.status = null;
     }
 
-    private Game snapshotShallow() {
-        Game g = new Game(true);
-        g.board = this.board.copy();
-        g.whiteToMove = this.whiteToMove;
-        g.gameOver = this.gameOver;
-        g.enPassantTarget = (this.enPassantTarget == null) ? null : new Position(this.enPassantTarget.getRow(), this.enPassantTarget.getColumn());
-        g.history.addAll(this.history);
-        return g;
+    // Used by position loaders in this package (Fen)
+    void setState(boolean whiteToMove, Position enPassantTarget) {
+        this.whiteToMove = whiteToMove;
+        this.enPassantTarget = enPassantTarget;
+        this.gameOver = false;
+        resetDerivedState();
     }
 
-    private void addHistory(String s) { history.add(s); }
+    void addHistory(String s) { history.add(s); }
 
-    private String coord(Position p) {
-        char file = (char)('a' + p.getColumn());
-        int rank = 8 - p.getRow();
-        return "" + file + rank;
+    // Generator prepared for the side to move (SAN: legal targets of a few candidate squares)
+    LegalMoveGenerator preparedGenerator() {
+        generator.prepare(whiteToMove);
+        return generator;
     }
 
     private void setupPieces() {
         // White back rank (row 7)
-        board.placePiece(new Rook(board, true), new Position(7, 0));
-        board.placePiece(new Knight(board, true), new Position(7, 1));
-        board.placePiece(new Bishop(board, true), new Position(7, 2));
-        board.placePiece(new Queen(board, true), new Position(7, 3));
-        board.placePiece(new King(board, true), new Position(7, 4));
-        board.placePiece(new Bishop(board, true), new Position(7, 5));
-        board.placePiece(new Knight(board, true), new Position(7, 6));
-        board.placePiece(new Rook(board, true), new Position(7, 7));
-        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, true), new Position(6, c));
+        board.placePiece(new Rook(board, true), Position.of(7, 0));
+        board.placePiece(new Knight(board, true), Position.of(7, 1));
+        board.placePiece(new Bishop(board, true), Position.of(7, 2));
+        board.placePiece(new Queen(board, true), Position.of(7, 3));
+        board.placePiece(new King(board, true), Position.of(7, 4));
+        board.placePiece(new Bishop(board, true), Position.of(7, 5));
+        board.placePiece(new Knight(board, true), Position.of(7, 6));
+        board.placePiece(new Rook(board, true), Position.of(7, 7));
+        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, true), Position.of(6, c));
 
         // Black back rank (row 0)
-        board.placePiece(new Rook(board, false), new Position(0, 0));
-        board.placePiece(new Knight(board, false), new Position(0, 1));
-        board.placePiece(new Bishop(board, false), new Position(0, 2));
-        board.placePiece(new Queen(board, false), new Position(0, 3));
-        board.placePiece(new King(board, false), new Position(0, 4));
-        board.placePiece(new Bishop(board, false), new Position(0, 5));
-        board.placePiece(new Knight(board, false), new Position(0, 6));
-        board.placePiece(new Rook(board, false), new Position(0, 7));
-        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, false), new Position(1, c));
+        board.placePiece(new Rook(board, false), Position.of(0, 0));
+        board.placePiece(new Knight(board, false), Position.of(0, 1));
+        board.placePiece(new Bishop(board, false), Position.of(0, 2));
+        board.placePiece(new Queen(board, false), Position.of(0, 3));
+        board.placePiece(new King(board, false), Position.of(0, 4));
+        board.placePiece(new Bishop(board, false), Position.of(0, 5));
+        board.placePiece(new Knight(board, false), Position.of(0, 6));
+        board.placePiece(new Rook(board, false), Position.of(0, 7));
+        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, false), Position.of(1, c));
     }
 }
@@ -0,0 +1,13 @@
+package controller;
+
+import model.board.Move;
+
+/**
+ * Observador de lances jogados por Game.makeMove(Move): recebe o lance (com a
+ * promoção efetivamente aplicada) e o status da posição resultante. Permite à
+ * GUI, a um servidor ou ao self-play reagir ao fim da partida sem que o Game
+ * dependa de Swing. Não é chamado pelos lances internos da busca (make/unmake).
+ */
+public interface GameListener {
+    void onMoveMade(Move move, GameStatus status);
+}
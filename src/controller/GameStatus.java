@@ -0,0 +1,38 @@
+package controller;
+
+/**
+ * Situação da partida para o lado a jogar, calculada uma vez por posição
+ * (ver Game.getStatus) e reaproveitada pela GUI e pelo motor.
+ */
+public enum GameStatus {
+
+    ONGOING("Em andamento"),
+    CHECK("Xeque!"),
+    CHECKMATE("Xeque-mate!"),
+    STALEMATE("Empate por xeque-pato!"),
+    DRAW_FIFTY_MOVES("Empate pela regra dos 50 lances!"),
+    DRAW_THREEFOLD_REPETITION("Empate por tripla repetição!"),
+    DRAW_INSUFFICIENT_MATERIAL("Empate por material insuficiente!");
+
+    private final String description;
+
+    GameStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() { return description; }
+
+    /** A partida terminou (mate ou qualquer empate)? */
+    public boolean isGameOver() {
+        return this != ONGOING && this != CHECK;
+    }
+
+    public boolean isDraw() {
+        return isGameOver() && this != CHECKMATE;
+    }
+
+    /** O lado a jogar está em xeque (inclusive mate)? */
+    public boolean isCheck() {
+        return this == CHECK || this == CHECKMATE;
+    }
+}
@@ -0,0 +1,128 @@
+package controller;
+
+import model.board.Bitboards;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Gerador de lances estritamente legais.
+ *
+ * prepare() calcula uma vez por posição o rei, as peças que dão xeque e as peças
+ * absolutamente cravadas; targets() devolve então a máscara de destinos legais de
+ * cada peça sem jogar/desfazer lances: com xeque simples só valem capturas do
+ * atacante ou bloqueios, com xeque duplo só o rei se move, peças cravadas ficam
+ * presas à linha do rei e o rei evita as casas atacadas pelo adversário (mapa de
+ * ataques do Board, compartilhado com inCheck e o roque).
+ * Só o en passant (que pode expor o rei pela fileira) é verificado jogando o lance.
+ */
+final class LegalMoveGenerator {
+
+    private final Game game;
+
+    private Board board;
+    private boolean white;
+    private int kingSq;
+    private long own;
+    private long occ;
+    private long enemyKing;
+    private long checkers;
+    private long pinned;
+    private long checkMask;
+
+    LegalMoveGenerator(Game game) {
+        this.game = game;
+    }
+
+    /** Calcula xeques e cravadas do lado indicado na posição atual. */
+    void prepare(boolean whiteSide) {
+        board = game.getBoard();
+        white = whiteSide;
+        own = board.occupancy(white);
+        occ = board.occupied();
+        enemyKing = board.bitboard(!white, Piece.KING);
+        kingSq = board.kingSquare(white);
+        pinned = 0L;
+        if (kingSq < 0) {
+            checkers = 0L;
+            checkMask = 0L;
+            return;
+        }
+
+        checkers = board.isSquareAttacked(kingSq, !white) ? board.attackersTo(kingSq, !white, occ) : 0L;
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if ((checkers & (checkers - 1)) == 0) {
+            checkMask = checkers | Bitboards.BETWEEN[kingSq][Long.numberOfTrailingZeros(checkers)];
+        } else {
+            checkMask = 0L; // xeque duplo
+        }
+
+        // Peças inimigas que veriam o rei se não houvesse peças nossas no caminho
+        long enemy = board.occupancy(!white);
+        long queens = board.bitboard(!white, Piece.QUEEN);
+        long snipers = (Bitboards.rookAttacks(kingSq, enemy) & (board.bitboard(!white, Piece.ROOK) | queens))
+                | (Bitboards.bishopAttacks(kingSq, enemy) & (board.bitboard(!white, Piece.BISHOP) | queens));
+        while (snipers != 0) {
+            long between = Bitboards.BETWEEN[kingSq][Long.numberOfTrailingZeros(snipers)] & occ;
+            if (between != 0 && (between & (between - 1)) == 0 && (between & own) != 0) {
+                pinned |= between;
+            }
+            snipers &= snipers - 1;
+        }
+    }
+
+    /** Retorna true se o lado preparado está em xeque. */
+    boolean inCheck() {
+        return kingSq < 0 || checkers != 0;
+    }
+
+    /** Máscara de destinos legais da peça (do lado preparado) na casa sq. */
+    long targets(int sq) {
+        if (kingSq < 0) return 0L;
+        Piece p = board.get(sq);
+        if (p == null || p.isWhite() != white) return 0L;
+
+        if (p.getType() == Piece.KING) return kingTargets(p);
+
+        // Pseudo-movimentos da própria peça, restritos por xeque e cravada
+        long t = p.getMoveMask() & ~enemyKing & checkMask;
+        if ((pinned & (1L << sq)) != 0) t &= Bitboards.LINE[kingSq][sq];
+        if (p.getType() == Piece.PAWN) t |= enPassantTarget(sq, p);
+        return t;
+    }
+
+    private long enPassantTarget(int sq, Piece p) {
+        Position ep = game.enPassantTarget();
+        if (ep == null) return 0L;
+        int epSq = ep.getIndex();
+        long epBit = 1L << epSq;
+        if ((Bitboards.PAWN_ATTACKS[white ? Bitboards.WHITE : Bitboards.BLACK][sq] & epBit) == 0) return 0L;
+        int victimSq = epSq + (white ? 8 : -8);
+        if ((board.bitboard(!white, Piece.PAWN) & (1L << victimSq)) == 0) return 0L;
+        // Raro o bastante para validar jogando o lance (cobre a cravada horizontal dupla)
+        return game.leavesKingInCheck(p.getPosition(), ep) ? 0L : epBit;
+    }
+
+    private long kingTargets(Piece king) {
+        // O mapa de ataques trata o rei como transparente: não bloqueia ataques ao fugir na mesma linha
+        long t = Bitboards.KING_ATTACKS[kingSq] & ~own & ~enemyKing & ~board.attackMap(!white);
+
+        // Castling: rei e torre sem mover, caminho livre, sem atravessar casas atacadas
+        if (!king.hasMoved() && checkers == 0 && (kingSq & 7) == 4) {
+            int row = kingSq >>> 3;
+            if (canCastle(row, 7, 5, 6)) t |= 1L << (row * 8 + 6);
+            if (canCastle(row, 0, 3, 2)) t |= 1L << (row * 8 + 2);
+        }
+        return t;
+    }
+
+    private boolean canCastle(int row, int rookCol, int passCol1, int passCol2) {
+        int rookSq = row * 8 + rookCol;
+        Piece rook = board.get(rookSq);
+        if (rook == null || rook.getType() != Piece.ROOK || rook.isWhite() != white || rook.hasMoved()) return false;
+        if ((Bitboards.BETWEEN[kingSq][rookSq] & occ) != 0) return false;
+        return !board.isSquareAttacked(row * 8 + passCol1, !white)
+                && !board.isSquareAttacked(row * 8 + passCol2, !white);
+    }
+}
@@ -0,0 +1,35 @@
+package controller;
+
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Registro reutilizável com tudo o que Game.makeMove(Move, MoveUndo) altera,
+ * para que Game.unmakeMove(MoveUndo) restaure a posição sem cópias do tabuleiro.
+ * Uma instância por ply basta: o mesmo objeto pode ser reaproveitado a cada lance.
+ */
+public final class MoveUndo {
+
+    Position from;
+    Position to;
+    Piece moved;
+    boolean movedBefore;      // flag "moved" da peça antes do lance
+
+    Piece captured;           // peça capturada (ou null)
+    Position capturedAt;      // difere de "to" no en passant
+
+    Piece promoted;           // peça que substituiu o peão (ou null)
+
+    Piece rook;               // torre deslocada no roque (ou null)
+    Position rookFrom;
+    Position rookTo;
+    boolean rookMovedBefore;
+
+    Position enPassantBefore; // alvo de en passant antes do lance
+    int castlingBefore;       // direitos de roque antes do lance
+    long stateKeyBefore;      // parte da chave Zobrist mantida pelo Game
+    int halfmoveBefore;       // relógio da regra dos 50 lances antes do lance
+
+    public Piece getCaptured() { return captured; }
+    public Piece getMoved() { return moved; }
+}
@@ -0,0 +1,183 @@
+package controller;
+
+import model.board.MoveList;
+import model.board.PackedMove;
+
+/**
+ * Perft: conta os nós-folha da árvore de lances legais até a profundidade N,
+ * usando generateMoves() e makeMove/unmakeMove do próprio Game (lances codificados em int).
+ * Serve de teste de corretude do gerador (comparando com contagens publicadas)
+ * e de medida de throughput (nós/s).
+ *
+ * Uso (sem interface gráfica):
+ *   java -cp bin controller.Perft suite
+ *   java -cp bin controller.Perft <profundidade> [divide] [nome | FEN]
+ */
+public final class Perft {
+
+    /** Posição de teste: nome, FEN e contagem publicada na profundidade dada. */
+    private static final class TestPosition {
+        final String name;
+        final String fen;
+        final int depth;
+        final long expected;
+
+        TestPosition(String name, String fen, int depth, long expected) {
+            this.name = name;
+            this.fen = fen;
+            this.depth = depth;
+            this.expected = expected;
+        }
+    }
+
+    // Contagens publicadas (Chess Programming Wiki / suíte de casos-limite de Martin Sedlak)
+    private static final TestPosition[] SUITE = {
+            new TestPosition("startpos", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    5, 4865609),
+            new TestPosition("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    4, 4085603),
+            new TestPosition("position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    5, 674624),
+            new TestPosition("position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    4, 422333),
+            new TestPosition("position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    4, 2103487),
+            new TestPosition("position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    4, 3894594),
+            // En passant
+            new TestPosition("ep-illegal", "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1",
+                    6, 1134888),
+            new TestPosition("ep-check", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1",
+                    6, 1440467),
+            // Roque
+            new TestPosition("castle-check", "5k2/8/8/8/8/8/8/4K2R w K - 0 1",
+                    6, 661072),
+            new TestPosition("castle-long-check", "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1",
+                    6, 803711),
+            new TestPosition("castle-rights", "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1",
+                    4, 1274206),
+            new TestPosition("castle-prevented", "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1",
+                    4, 1720476),
+            // Promoção
+            new TestPosition("promo-out-of-check", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1",
+                    6, 3821001),
+            new TestPosition("promo-check", "4k3/1P6/8/8/8/8/K7/8 w - - 0 1",
+                    6, 217342),
+            new TestPosition("underpromo-check", "8/P1k5/K7/8/8/8/8/8 w - - 0 1",
+                    6, 92683),
+            // Xeque descoberto / duplo, afogamento
+            new TestPosition("discovered-check", "8/8/1P2K3/8/2n5/1q6/8/5k2 b - - 0 1",
+                    5, 1004658),
+            new TestPosition("double-check", "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1",
+                    4, 23527),
+            new TestPosition("self-stalemate", "K1k5/8/P7/8/8/8/8/8 w - - 0 1",
+                    6, 2217),
+    };
+
+    private final Game game;
+    private final MoveUndo[] undos = new MoveUndo[64];
+    private final MoveList[] lists = new MoveList[64];
+
+    public Perft(Game game) {
+        this.game = game;
+        for (int i = 0; i < undos.length; i++) {
+            undos[i] = new MoveUndo();
+            lists[i] = new MoveList();
+        }
+    }
+
+    /** Número de folhas da árvore de lances legais com a profundidade dada. */
+    public long perft(int depth) {
+        return perft(depth, 0);
+    }
+
+    private long perft(int depth, int ply) {
+        if (depth == 0) return 1;
+        MoveList moves = lists[ply];
+        moves.clear();
+        game.generateMoves(moves);
+        if (depth == 1) return moves.size(); // contagem em bloco: os lances já são legais
+        long nodes = 0;
+        MoveUndo undo = undos[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i), undo);
+            nodes += perft(depth - 1, ply + 1);
+            game.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    /** Perft dividido: imprime as folhas abaixo de cada lance da raiz e retorna o total. */
+    public long divide(int depth) {
+        long total = 0;
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        MoveUndo undo = undos[0];
+        for (int i = 0; i < moves.size(); i++) {
+            int m = moves.get(i);
+            game.makeMove(m, undo);
+            long n = perft(depth - 1, 1);
+            game.unmakeMove(undo);
+            System.out.println(PackedMove.toString(m) + ": " + n);
+            total += n;
+        }
+        return total;
+    }
+
+
+    private static TestPosition find(String name) {
+        for (TestPosition tp : SUITE) if (tp.name.equals(name)) return tp;
+        return null;
+    }
+
+    // --- Linha de comando ---
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].equals("suite")) {
+            System.exit(runSuite() ? 0 : 1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = args.length > 1 && args[1].equals("divide");
+        int posArg = divide ? 2 : 1;
+        String fen = SUITE[0].fen;
+        if (args.length > posArg) {
+            TestPosition tp = find(args[posArg]);
+            fen = tp != null ? tp.fen : String.join(" ", java.util.Arrays.copyOfRange(args, posArg, args.length));
+        }
+
+        Perft perft = new Perft(Fen.parse(fen));
+        long start = System.nanoTime();
+        long nodes = divide ? perft.divide(depth) : perft.perft(depth);
+        report(depth, nodes, System.nanoTime() - start);
+    }
+
+    /** Roda a suíte completa; retorna false se alguma contagem divergir. */
+    private static boolean runSuite() {
+        boolean ok = true;
+        long totalNodes = 0, totalNanos = 0;
+        for (TestPosition tp : SUITE) {
+            Perft perft = new Perft(Fen.parse(tp.fen));
+            int depth = tp.depth;
+            long start = System.nanoTime();
+            long nodes = perft.perft(depth);
+            long nanos = System.nanoTime() - start;
+            totalNodes += nodes;
+            totalNanos += nanos;
+            boolean match = nodes == tp.expected;
+            ok &= match;
+            System.out.printf("%-20s perft(%d) = %,d %s%n", tp.name, depth, nodes,
+                    match ? "OK" : "ERRO (esperado " + tp.expected + ")");
+        }
+        System.out.println();
+        report(-1, totalNodes, totalNanos);
+        System.out.println(ok ? "Todas as contagens conferem." : "Há contagens divergentes!");
+        return ok;
+    }
+
+    private static void report(int depth, long nodes, long nanos) {
+        double secs = nanos / 1e9;
+        String label = depth < 0 ? "total" : "perft(" + depth + ")";
+        System.out.printf("%s = %,d nós em %.3f s (%,.0f nós/s)%n", label, nodes, secs, nodes / Math.max(secs, 1e-9));
+    }
+}
@@ -0,0 +1,48 @@
+package controller;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Uma partida lida de um arquivo PGN: os tags na ordem do arquivo, o Game já
+ * jogado até o último lance válido (com o histórico em SAN) e o resultado.
+ * Se algum lance não pôde ser resolvido, getError() descreve o problema e o
+ * Game para no lance anterior.
+ */
+public final class PgnGame {
+
+    private final Map<String, String> tags;
+    private final Game game;
+    private final int[] moves;
+    private final String result;
+    private final String error;
+
+    PgnGame(Map<String, String> tags, Game game, int[] moves, String result, String error) {
+        this.tags = tags;
+        this.game = game;
+        this.moves = moves;
+        this.result = result;
+        this.error = error;
+    }
+
+    public Map<String, String> getTags() { return Collections.unmodifiableMap(tags); }
+
+    /** Valor do tag ou null se ausente. */
+    public String getTag(String name) { return tags.get(name); }
+
+    public Game getGame() { return game; }
+
+    /** Número de lances resolvidos (o tamanho do histórico). */
+    public int moveCount() { return moves.length; }
+
+    /** i-ésimo lance compactado (PackedMove), da posição inicial da partida (tag FEN ou a padrão). */
+    public int move(int i) { return moves[i]; }
+
+    /** "1-0", "0-1", "1/2-1/2" ou "*" (o terminador do movetext, ou o tag Result na falta dele). */
+    public String getResult() { return result; }
+
+    /** Descrição do primeiro lance inválido (ou FEN inválida), ou null. */
+    public String getError() { return error; }
+
+    public boolean isValid() { return error == null; }
+}
@@ -0,0 +1,267 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import model.board.PackedMove;
+
+/**
+ * Leitor de PGN em fluxo: percorre o arquivo por um buffer NIO de tamanho fixo e
+ * devolve uma partida por vez em next(), de modo que a memória não depende do
+ * tamanho do arquivo (só da maior partida).
+ *
+ * Cada lance SAN é resolvido contra o gerador de lances legais (ver San.parse) e
+ * jogado no Game da partida, que sai com o histórico preenchido em SAN canônico
+ * (o PgnWriter reescreve a partida normalizada) e os lances resolvidos. Comentários
+ * ({...} e ;...), variantes (...) e NAGs ($n) são pulados sem serem guardados.
+ *
+ * Uso (sem interface gráfica), para validar um arquivo e medir a vazão:
+ *   java -cp bin controller.PgnReader arquivo.pgn
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] buf = buffer.array();
+    private int pos, limit;
+    private boolean eof;
+
+    // Reaproveitados entre lances e partidas
+    private final StringBuilder token = new StringBuilder(16);
+    private byte[] value = new byte[256];
+    private final MoveUndo undo = new MoveUndo();
+    private final StringBuilder san = new StringBuilder(16);
+    private int[] moves = new int[256];
+    private int moveCount;
+
+    public PgnReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Próxima partida do arquivo, ou null no fim. */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        Game game = null;
+        String result = null;
+        String error = null;
+        boolean found = false;
+        moveCount = 0;
+
+        for (int c; (c = skipSpaces()) >= 0; ) {
+            if (c == '[') {
+                if (game != null) break; // tags da partida seguinte
+                pos++;
+                readTag(tags);
+                found = true;
+                continue;
+            }
+            found = true;
+            if (game == null) {
+                String fen = tags.get("FEN");
+                try {
+                    game = fen == null ? new Game() : Fen.parse(fen);
+                } catch (IllegalArgumentException e) {
+                    game = new Game();
+                    error = e.getMessage();
+                }
+            }
+            pos++;
+            switch (c) {
+                case '{': skipPast('}'); break;
+                case ';':
+                case '%': skipPast('\n'); break;
+                case '(': skipVariation(); break;
+                case ')': break;
+                case '$': readToken(c); break;
+                default:
+                    readToken(c);
+                    result = terminator();
+                    if (result != null) return new PgnGame(tags, game, Arrays.copyOf(moves, moveCount), result, error);
+                    stripMoveNumberAndGlyphs();
+                    if (token.length() == 0 || error != null) break;
+                    int m = San.parse(game, token);
+                    if (m == PackedMove.NONE) {
+                        error = "lance inválido no meio-lance " + (game.history().size() + 1) + ": " + token;
+                        break;
+                    }
+                    // O histórico guarda o SAN canônico, não o texto do arquivo ("e2-e4", "0-0", xeque sem "+")
+                    san.setLength(0);
+                    San.appendMove(game, m, san);
+                    game.makeMove(m, undo);
+                    San.appendCheck(game, san);
+                    game.addHistory(san.toString());
+                    if (moveCount == moves.length) moves = Arrays.copyOf(moves, moveCount * 2);
+                    moves[moveCount++] = m;
+                    break;
+            }
+        }
+        if (!found) return null;
+        if (game == null) game = new Game();
+        result = tags.getOrDefault("Result", "*");
+        return new PgnGame(tags, game, Arrays.copyOf(moves, moveCount), result, error);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- Tokenização ---
+
+    // Próximo byte sem consumi-lo, pulando espaços (e bytes fora do ASCII, como o BOM)
+    private int skipSpaces() throws IOException {
+        for (;;) {
+            if (pos == limit && !fill()) return -1;
+            int c = buf[pos] & 0xFF;
+            if (c > ' ' && c < 0x80) return c;
+            pos++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            limit = pos = 0;
+            return false;
+        }
+        pos = 0;
+        limit = buffer.position();
+        return true;
+    }
+
+    private void skipPast(int end) throws IOException {
+        for (int c; (c = read()) >= 0; ) {
+            if (c == end) return;
+        }
+    }
+
+    // Variante (já consumido o '('), com aninhamento e comentários que podem conter parênteses
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        for (int c; depth > 0 && (c = read()) >= 0; ) {
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == '{') skipPast('}');
+            else if (c == ';') skipPast('\n');
+        }
+    }
+
+    // Token de movetext a partir do primeiro caractere (já consumido)
+    private void readToken(int first) throws IOException {
+        token.setLength(0);
+        token.append((char) first);
+        for (int c; (c = peek()) >= 0; ) {
+            if (c <= ' ' || c >= 0x80 || c == '{' || c == '}' || c == '(' || c == ')'
+                    || c == ';' || c == '[' || c == ']') return;
+            token.append((char) c);
+            pos++;
+        }
+    }
+
+    private String terminator() {
+        if (token.length() == 1 && token.charAt(0) == '*') return "*";
+        if (equals(token, "1-0")) return "1-0";
+        if (equals(token, "0-1")) return "0-1";
+        if (equals(token, "1/2-1/2")) return "1/2-1/2";
+        return null;
+    }
+
+    // "12." / "12..." / "12...e5": tira o número do lance e os pontos; "e4!?": tira as anotações
+    private void stripMoveNumberAndGlyphs() {
+        int n = token.length();
+        while (n > 0 && (token.charAt(n - 1) == '!' || token.charAt(n - 1) == '?')) n--;
+        token.setLength(n);
+        int i = 0;
+        while (i < n && Character.isDigit(token.charAt(i))) i++;
+        // Só é número de lance se vier um '.' (ou nada): "0-0" e "0-0-0" são roques
+        if (i == 0 || (i < n && token.charAt(i) != '.')) return;
+        while (i < n && token.charAt(i) == '.') i++;
+        token.delete(0, i);
+    }
+
+    // [Nome "valor"] (já consumido o '['); valores em UTF-8 com escapes \" e \\
+    private void readTag(Map<String, String> tags) throws IOException {
+        skipSpaces();
+        token.setLength(0);
+        int c;
+        while ((c = peek()) > ' ' && c != '"' && c != ']') {
+            token.append((char) c);
+            pos++;
+        }
+        String name = token.toString();
+        while ((c = read()) >= 0 && c != '"') {
+            if (c == ']') return;
+        }
+        int len = 0;
+        while ((c = read()) >= 0 && c != '"') {
+            if (c == '\\') c = read();
+            if (c < 0) break;
+            if (len == value.length) value = Arrays.copyOf(value, len * 2);
+            value[len++] = (byte) c;
+        }
+        skipPast(']');
+        tags.put(name, new String(value, 0, len, StandardCharsets.UTF_8));
+    }
+
+    private static boolean equals(CharSequence a, String b) {
+        if (a.length() != b.length()) return false;
+        for (int i = 0; i < b.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // --- Linha de comando ---
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: java -cp bin controller.PgnReader arquivo.pgn");
+            System.exit(2);
+        }
+        long games = 0, invalid = 0, plies = 0;
+        long start = System.nanoTime();
+        try (PgnReader reader = new PgnReader(Paths.get(args[0]))) {
+            for (PgnGame g; (g = reader.next()) != null; ) {
+                games++;
+                plies += g.getGame().history().size();
+                if (!g.isValid() && invalid++ < 10) {
+                    System.out.println("partida " + games + ": " + g.getError());
+                }
+            }
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d partidas (%,d inválidas), %,d meios-lances em %.3f s (%,.0f partidas/s)%n",
+                games, invalid, plies, secs, games / Math.max(secs, 1e-9));
+    }
+}
@@ -0,0 +1,108 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor de PGN: tags (os sete obrigatórios primeiro, com "?" quando ausentes)
+ * e o movetext em SAN a partir do histórico do Game, com os números dos lances e
+ * linhas de até 79 caracteres. Para partidas que não começam na posição inicial,
+ * o chamador passa os tags SetUp/FEN.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final int LINE_WIDTH = 79;
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+
+    public PgnWriter(Path path) throws IOException {
+        this(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void write(PgnGame pgn) throws IOException {
+        write(pgn.getTags(), pgn.getGame(), pgn.getResult());
+    }
+
+    /** Escreve a partida jogada em game (histórico SAN) com os tags dados e o resultado. */
+    public void write(Map<String, String> tags, Game game, String result) throws IOException {
+        for (String name : SEVEN_TAG_ROSTER) {
+            String v = name.equals("Result") ? result : tags.get(name);
+            writeTag(name, v != null ? v : name.equals("Date") ? "????.??.??" : "?");
+        }
+        for (Map.Entry<String, String> e : tags.entrySet()) {
+            if (!isSevenTagRoster(e.getKey())) writeTag(e.getKey(), e.getValue());
+        }
+        out.write('\n');
+
+        // Meio-lance inicial deduzido da posição final: lance atual menos o histórico
+        List<String> moves = game.history();
+        int ply = (game.getFullmoveNumber() - 1) * 2 + (game.isWhiteToMove() ? 0 : 1) - moves.size();
+        line.setLength(0);
+        if ((ply & 1) == 1 && !moves.isEmpty()) word((ply / 2 + 1) + "...");
+        for (String san : moves) {
+            if ((ply & 1) == 0) word((ply / 2 + 1) + ".");
+            word(san);
+            ply++;
+        }
+        word(result);
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    /** Resultado PGN da posição atual: mate ou empate encerram a partida, senão "*". */
+    public static String resultOf(Game game) {
+        GameStatus s = game.getStatus();
+        if (s == GameStatus.CHECKMATE) return game.isWhiteToMove() ? "0-1" : "1-0";
+        return s.isDraw() ? "1/2-1/2" : "*";
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void word(String w) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + w.length() > LINE_WIDTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) line.append(' ');
+        line.append(w);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.write('\\');
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    private static boolean isSevenTagRoster(String name) {
+        for (String s : SEVEN_TAG_ROSTER) if (s.equals(name)) return true;
+        return false;
+    }
+}
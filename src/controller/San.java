@@ -0,0 +1,169 @@
+package controller;
+
+import model.board.Board;
+import model.board.Move;
+import model.board.PackedMove;
+import model.pieces.Piece;
+
+/**
+ * Notação algébrica padrão (SAN), nos dois sentidos.
+ *
+ * A leitura não gera a lista completa de lances: a partir da peça, da casa de
+ * destino e da desambiguação escritas, só as poucas casas candidatas (bitboard da
+ * peça filtrado por coluna/fileira) são testadas contra os destinos legais do
+ * LegalMoveGenerator. A escrita usa o mesmo teste para decidir a desambiguação.
+ */
+public final class San {
+
+    private static final String PIECE_LETTERS = "PNBRQK";
+    private static final long FILE_A = 0x0101010101010101L;
+
+    private San() { /* utilitário */ }
+
+    /**
+     * Lance legal da posição atual escrito em SAN (aceita também "0-0", "e2-e4" e
+     * sufixos +, #, !, ?). Retorna PackedMove.NONE se o texto for inválido, ilegal
+     * ou ambíguo.
+     */
+    public static int parse(Game g, CharSequence san) {
+        int n = san.length();
+        while (n > 0 && "+#!?".indexOf(san.charAt(n - 1)) >= 0) n--;
+        if (n < 2) return PackedMove.NONE;
+
+        Board b = g.getBoard();
+        boolean white = g.isWhiteToMove();
+        char first = san.charAt(0);
+        if (first == 'O' || first == '0') {
+            int king = b.kingSquare(white);
+            if (king < 0) return PackedMove.NONE;
+            if (n == 3 && san.charAt(1) == '-') return legal(g, king, king + 2);
+            if (n == 5 && san.charAt(1) == '-' && san.charAt(3) == '-') return legal(g, king, king - 2);
+            return PackedMove.NONE;
+        }
+
+        int type = Piece.PAWN;
+        int i = 0;
+        int t = PIECE_LETTERS.indexOf(first);
+        if (t > 0) {
+            type = t;
+            i = 1;
+        }
+
+        // Promoção: "e8=Q" ou "e8Q"
+        Character promo = null;
+        if (type == Piece.PAWN && n >= 3 && "NBRQ".indexOf(san.charAt(n - 1)) >= 0) {
+            promo = san.charAt(n - 1);
+            n -= san.charAt(n - 2) == '=' ? 2 : 1;
+        }
+        if (n - i < 2) return PackedMove.NONE;
+        int toFile = san.charAt(n - 2) - 'a';
+        int toRank = san.charAt(n - 1) - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) return PackedMove.NONE;
+        int to = (7 - toRank) * 8 + toFile;
+
+        // Desambiguação (coluna e/ou fileira de origem); 'x' e '-' são só decorativos
+        int fromFile = -1, fromRank = -1;
+        for (int k = i; k < n - 2; k++) {
+            char c = san.charAt(k);
+            if (c >= 'a' && c <= 'h') fromFile = c - 'a';
+            else if (c >= '1' && c <= '8') fromRank = c - '1';
+            else if (c != 'x' && c != '-' && c != ':') return PackedMove.NONE;
+        }
+        // Avanço de peão sem coluna de origem só pode vir da mesma coluna
+        if (type == Piece.PAWN && fromFile < 0) fromFile = toFile;
+
+        long candidates = b.bitboard(white, type);
+        if (fromFile >= 0) candidates &= FILE_A << fromFile;
+        if (fromRank >= 0) candidates &= 0xFFL << ((7 - fromRank) * 8);
+
+        LegalMoveGenerator gen = g.preparedGenerator();
+        int from = -1;
+        for (; candidates != 0; candidates &= candidates - 1) {
+            int sq = Long.numberOfTrailingZeros(candidates);
+            if ((gen.targets(sq) & (1L << to)) == 0) continue;
+            if (from >= 0) return PackedMove.NONE; // ambíguo
+            from = sq;
+        }
+        if (from < 0) return PackedMove.NONE;
+
+        boolean promotes = type == Piece.PAWN && (to < 8 || to >= 56);
+        if (promotes != (promo != null)) return PackedMove.NONE;
+        return g.encode(from, to, promo);
+    }
+
+    /** SAN do lance (da posição atual), com + ou # quando dá xeque ou mate. */
+    public static String toSan(Game g, Move move) {
+        return toSan(g, g.encode(move));
+    }
+
+    /** SAN do lance compactado (da posição atual), com + ou # quando dá xeque ou mate. */
+    public static String toSan(Game g, int move) {
+        StringBuilder sb = new StringBuilder(8);
+        appendMove(g, move, sb);
+        MoveUndo undo = new MoveUndo();
+        g.makeMove(move, undo);
+        appendCheck(g, sb);
+        g.unmakeMove(undo);
+        return sb.toString();
+    }
+
+    // Lance sem o sufixo de xeque (o Game acrescenta o sufixo depois de jogar)
+    static void appendMove(Game g, int move, StringBuilder sb) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int type = PackedMove.piece(move);
+        if (PackedMove.isCastle(move)) {
+            sb.append(to > from ? "O-O" : "O-O-O");
+            return;
+        }
+
+        if (type == Piece.PAWN) {
+            if (PackedMove.isCapture(move)) sb.append(file(from)).append('x');
+            appendSquare(sb, to);
+            Character promo = PackedMove.promotionChar(move);
+            if (promo != null) sb.append('=').append(promo.charValue());
+            return;
+        }
+
+        sb.append(PIECE_LETTERS.charAt(type));
+        if (type != Piece.KING) {
+            // Outras peças iguais que também chegam ao destino decidem a desambiguação
+            long others = g.getBoard().bitboard(g.isWhiteToMove(), type) & ~(1L << from);
+            LegalMoveGenerator gen = g.preparedGenerator();
+            boolean ambiguous = false, sameFile = false, sameRank = false;
+            for (; others != 0; others &= others - 1) {
+                int sq = Long.numberOfTrailingZeros(others);
+                if ((gen.targets(sq) & (1L << to)) == 0) continue;
+                ambiguous = true;
+                sameFile |= (sq & 7) == (from & 7);
+                sameRank |= (sq >>> 3) == (from >>> 3);
+            }
+            if (ambiguous) {
+                if (!sameFile) sb.append(file(from));
+                else if (!sameRank) sb.append(rank(from));
+                else sb.append(file(from)).append(rank(from));
+            }
+        }
+        if (PackedMove.isCapture(move)) sb.append('x');
+        appendSquare(sb, to);
+    }
+
+    // Sufixo para a posição já jogada: # no mate, + no xeque
+    static void appendCheck(Game g, StringBuilder sb) {
+        if (!g.inCheck(g.isWhiteToMove())) return;
+        sb.append(g.getStatus() == GameStatus.CHECKMATE ? '#' : '+');
+    }
+
+    private static int legal(Game g, int from, int to) {
+        if (to < 0 || to > 63 || (g.preparedGenerator().targets(from) & (1L << to)) == 0) return PackedMove.NONE;
+        return g.encode(from, to, null);
+    }
+
+    private static void appendSquare(StringBuilder sb, int sq) {
+        sb.append(file(sq)).append(rank(sq));
+    }
+
+    private static char file(int sq) { return (char) ('a' + (sq & 7)); }
+
+    private static char rank(int sq) { return (char) ('8' - (sq >>> 3)); }
+}
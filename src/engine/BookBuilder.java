@@ -0,0 +1,188 @@
+package engine;
+
+import controller.Fen;
+import controller.Game;
+import controller.MoveUndo;
+import controller.PgnGame;
+import controller.PgnReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.board.PackedMove;
+
+/**
+ * Compila um livro de aberturas (ver OpeningBook) a partir de arquivos PGN.
+ *
+ * Os primeiros -plies meios-lances de cada partida são contados por par
+ * posição/lance numa tabela de endereçamento aberto (memória proporcional aos pares
+ * distintos, não ao número de partidas). O peso segue o Polyglot: 2 por vitória e
+ * 1 por empate (ou resultado desconhecido) do lado que jogou o lance; lances vistos
+ * em menos de -min partidas ou sem nenhum ponto ficam de fora.
+ *
+ * Uso:
+ *   java -cp bin engine.BookBuilder [-plies 20] [-min 2] livro.bin partidas.pgn [mais.pgn ...]
+ */
+public final class BookBuilder {
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPlies;
+    private final int minGames;
+
+    // Tabela (chave, lance) -> partidas e pontos; slot livre tem games == 0
+    private long[] keys = new long[1 << 16];
+    private int[] moves = new int[1 << 16];
+    private int[] games = new int[1 << 16];
+    private long[] points = new long[1 << 16];
+    private int used;
+
+    private final MoveUndo undo = new MoveUndo();
+
+    public BookBuilder(int maxPlies, int minGames) {
+        this.maxPlies = maxPlies;
+        this.minGames = Math.max(1, minGames);
+    }
+
+    /** Acrescenta as partidas do arquivo; retorna quantas foram lidas. */
+    public int addPgn(Path path) throws IOException {
+        int n = 0;
+        try (PgnReader reader = new PgnReader(path)) {
+            for (PgnGame pgn; (pgn = reader.next()) != null; n++) addGame(pgn);
+        }
+        return n;
+    }
+
+    /** Conta os lances iniciais da partida (até o primeiro lance inválido, se houver). */
+    public void addGame(PgnGame pgn) {
+        String fen = pgn.getTag("FEN");
+        Game g;
+        try {
+            g = fen == null ? new Game() : Fen.parse(fen);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        String result = pgn.getResult();
+        // Lances já resolvidos pelo PgnReader: não é preciso interpretar o SAN de novo
+        for (int i = 0, n = Math.min(maxPlies, pgn.moveCount()); i < n; i++) {
+            int m = pgn.move(i);
+            boolean white = g.isWhiteToMove();
+            int score = result.equals("1/2-1/2") || result.equals("*") ? 1
+                    : result.equals(white ? "1-0" : "0-1") ? 2 : 0;
+            add(g.positionKey(), bookMove(m), score);
+            g.makeMove(m, undo);
+        }
+    }
+
+    // Roque do Polyglot: o rei "captura" a própria torre
+    static int bookMove(int m) {
+        int from = PackedMove.from(m);
+        int to = PackedMove.to(m);
+        if (PackedMove.isCastle(m)) to = to > from ? from + 3 : from - 4;
+        return OpeningBook.encodeMove(from, to, PackedMove.promotion(m));
+    }
+
+    private void add(long key, int move, int score) {
+        if (used * 2 >= keys.length) grow();
+        int i = slot(keys, moves, games, key, move);
+        if (games[i] == 0) {
+            keys[i] = key;
+            moves[i] = move;
+            used++;
+        }
+        games[i]++;
+        points[i] += score;
+    }
+
+    private static int slot(long[] keys, int[] moves, int[] games, long key, int move) {
+        int mask = keys.length - 1;
+        long h = (key ^ move * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        int i = (int) (h >>> 32) & mask;
+        while (games[i] != 0 && (keys[i] != key || moves[i] != move)) i = (i + 1) & mask;
+        return i;
+    }
+
+    private void grow() {
+        int size = keys.length * 2;
+        long[] k = new long[size];
+        int[] m = new int[size];
+        int[] g = new int[size];
+        long[] p = new long[size];
+        for (int i = 0; i < keys.length; i++) {
+            if (games[i] == 0) continue;
+            int j = slot(k, m, g, keys[i], moves[i]);
+            k[j] = keys[i];
+            m[j] = moves[i];
+            g[j] = games[i];
+            p[j] = points[i];
+        }
+        keys = k;
+        moves = m;
+        games = g;
+        points = p;
+    }
+
+    /** Grava o livro: entradas ordenadas pela chave e, na mesma posição, pelo peso decrescente. */
+    public int write(Path path) throws IOException {
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (games[i] >= minGames && points[i] > 0) kept.add(i);
+        }
+        Integer[] order = kept.toArray(new Integer[0]);
+        Arrays.sort(order, (a, b) -> {
+            int c = Long.compareUnsigned(keys[a], keys[b]);
+            return c != 0 ? c : Long.compare(points[b], points[a]);
+        });
+
+        ByteBuffer buf = ByteBuffer.allocate(OpeningBook.ENTRY_SIZE * 4096);
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int start = 0; start < order.length; ) {
+                // Mesma posição: pesos reduzidos juntos (proporção mantida) se o maior passar de 16 bits
+                int end = start;
+                while (end < order.length && keys[order[end]] == keys[order[start]]) end++;
+                long max = points[order[start]];
+                for (int i = start; i < end; i++) {
+                    int e = order[i];
+                    int weight = (int) Math.max(1, max > MAX_WEIGHT ? points[e] * MAX_WEIGHT / max : points[e]);
+                    if (buf.remaining() < OpeningBook.ENTRY_SIZE) flush(out, buf);
+                    buf.putLong(keys[e]).putShort((short) moves[e]).putShort((short) weight).putInt(0);
+                }
+                start = end;
+            }
+            flush(out, buf);
+        }
+        return order.length;
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = 20, min = 1, i = 0;
+        for (; i + 1 < args.length && args[i].startsWith("-"); i += 2) {
+            if (args[i].equals("-plies")) plies = Integer.parseInt(args[i + 1]);
+            else if (args[i].equals("-min")) min = Integer.parseInt(args[i + 1]);
+            else break;
+        }
+        if (args.length - i < 2) {
+            System.err.println("Uso: java -cp bin engine.BookBuilder [-plies N] [-min N] livro.bin partidas.pgn [...]");
+            System.exit(2);
+        }
+        BookBuilder builder = new BookBuilder(plies, min);
+        long start = System.nanoTime();
+        int total = 0;
+        for (int k = i + 1; k < args.length; k++) total += builder.addPgn(Paths.get(args[k]));
+        int entries = builder.write(Paths.get(args[i]));
+        System.out.printf("%,d partidas, %,d entradas gravadas em %s (%.2f s)%n",
+                total, entries, args[i], (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,27 @@
+package engine;
+
+import model.board.Board;
+import model.board.PieceSquareTables;
+
+/**
+ * Avaliação estática da posição em centipeões, do ponto de vista do lado a jogar.
+ *
+ * Material e tabelas peça-casa (PieceSquareTables) são somados pelo próprio
+ * Board a cada set/remove, então avaliar uma folha é O(1): basta interpolar os
+ * totais de meio-jogo e de final pela fase (quanto material de peças resta).
+ */
+public final class Evaluator {
+
+    /** Valor nominal de cada tipo (Piece.PAWN..Piece.KING) em centipeões, para ordenação de lances. */
+    public static final int[] PIECE_VALUES = {100, 300, 300, 500, 900, 0};
+
+    private Evaluator() { /* utilitário */ }
+
+    /** Score do ponto de vista de quem joga (positivo = melhor para o lado a jogar). */
+    public static int evaluate(Board board, boolean whiteToMove) {
+        int phase = Math.min(board.phase(), PieceSquareTables.MAX_PHASE); // promoções podem passar de 24
+        int score = (board.mgScore() * phase
+                + board.egScore() * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return whiteToMove ? score : -score;
+    }
+}
@@ -0,0 +1,129 @@
+package engine;
+
+import model.board.MoveList;
+import model.board.PackedMove;
+import model.pieces.Piece;
+
+/**
+ * Ordenação de lances entre a geração e a busca.
+ *
+ * Ordem: lance da tabela de transposição, capturas por MVV-LVA (vítima mais
+ * valiosa, atacante menos valioso), promoções a dama, os dois killers do ply e,
+ * por fim, os lances quietos pelo histórico "butterfly" (lado, origem, destino).
+ * Killers e histórico só aprendem com cortes beta de lances quietos.
+ *
+ * Os lances não são ordenados de uma vez: score() preenche as notas e next()
+ * traz o melhor restante para a posição i (seleção), já que um corte costuma
+ * dispensar o resto da lista. Uma instância por Search (não é thread-safe).
+ */
+public final class MoveOrderer {
+
+    private static final int TT_MOVE = 1_000_000;
+    private static final int CAPTURE = 200_000;
+    private static final int PROMOTION = 150_000;
+    private static final int KILLER_1 = 100_000;
+    private static final int KILLER_2 = 90_000;
+    private static final int HISTORY_MAX = 50_000; // mantém o histórico abaixo dos killers
+
+    private final int[][] scores = new int[Search.MAX_PLY][MoveList.CAPACITY];
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    private final int[][][] history = new int[2][64][64];
+
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /** Nota de MVV-LVA de uma captura (também usada pela quiescência). */
+    public static int mvvLva(int move) {
+        int victim = PackedMove.captured(move);
+        if (victim < 0) return 0;
+        return Evaluator.PIECE_VALUES[victim] * 8 - PackedMove.piece(move);
+    }
+
+    /** Calcula as notas dos lances do ply (o lance da TT, se houver, vem primeiro). */
+    public void score(MoveList moves, int ply, int ttMove, boolean white) {
+        int[] s = scores[ply];
+        int[][] h = history[white ? 0 : 1];
+        for (int i = 0; i < moves.size(); i++) {
+            int m = moves.get(i);
+            if (m == ttMove) {
+                s[i] = TT_MOVE;
+            } else if (PackedMove.isCapture(m)) {
+                s[i] = CAPTURE + mvvLva(m);
+            } else if (PackedMove.promotion(m) == Piece.QUEEN) {
+                s[i] = PROMOTION;
+            } else if (m == killers[ply][0]) {
+                s[i] = KILLER_1;
+            } else if (m == killers[ply][1]) {
+                s[i] = KILLER_2;
+            } else {
+                s[i] = h[PackedMove.from(m)][PackedMove.to(m)];
+            }
+        }
+    }
+
+    /** Traz para a posição i o lance de maior nota entre i e o fim da lista. */
+    public void next(MoveList moves, int ply, int i) {
+        int[] s = scores[ply];
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (s[j] > s[best]) best = j;
+        }
+        if (best != i) {
+            moves.swap(i, best);
+            int t = s[i];
+            s[i] = s[best];
+            s[best] = t;
+        }
+    }
+
+    /**
+     * Registra um corte beta do lance na posição index da lista.
+     * Lances quietos viram killers do ply e ganham depth² no histórico.
+     */
+    public void cutoff(int move, int ply, int depth, boolean white, int index) {
+        cutoffs++;
+        if (index == 0) firstMoveCutoffs++;
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) return;
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] h = history[white ? 0 : 1][PackedMove.from(move)];
+        int to = PackedMove.to(move);
+        h[to] += depth * depth;
+        if (h[to] > HISTORY_MAX) ageHistory();
+    }
+
+    /** Reduz o histórico à metade (entre buscas e quando alguma nota satura). */
+    public void ageHistory() {
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                for (int to = 0; to < 64; to++) from[to] >>= 1;
+            }
+        }
+    }
+
+    /** Limpa killers e estatísticas para uma nova busca; o histórico é só envelhecido. */
+    public void newSearch() {
+        for (int[] k : killers) {
+            k[0] = PackedMove.NONE;
+            k[1] = PackedMove.NONE;
+        }
+        ageHistory();
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    public long getCutoffs() { return cutoffs; }
+
+    /** Fração dos cortes beta produzidos pelo primeiro lance tentado (meta: > 90%). */
+    public double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cortes %d, no primeiro lance %.1f%%", cutoffs, 100 * firstMoveCutoffRate());
+    }
+}
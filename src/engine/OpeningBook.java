@@ -0,0 +1,100 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Livro de aberturas em arquivo binário, mapeado em memória (FileChannel.map).
+ *
+ * O layout é o do formato Polyglot: entradas de 16 bytes big-endian (chave de 64
+ * bits, lance de 16, peso de 16 e 32 bits de "learn" não usados), ordenadas pela
+ * chave sem sinal; o lance usa a codificação Polyglot (destino nos bits 0..5, origem
+ * em 6..11 com a1 = 0, promoção em 12..14 e roque escrito como "rei captura torre").
+ * A chave, porém, é a chave de Zobrist deste motor (Game.positionKey): a tabela de
+ * números aleatórios do Polyglot não é reproduzida aqui, então livros de terceiros
+ * não servem; os livros vêm do BookBuilder.
+ *
+ * A consulta é uma busca binária direto no mapeamento, sem cópias nem alocação, e
+ * pode ser feita por várias threads ao mesmo tempo.
+ */
+public final class OpeningBook implements Closeable {
+
+    public static final int ENTRY_SIZE = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int entries;
+
+    public OpeningBook(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size % ENTRY_SIZE != 0 || size / ENTRY_SIZE > Integer.MAX_VALUE / ENTRY_SIZE) {
+            channel.close();
+            throw new IOException("Livro de aberturas inválido: " + path);
+        }
+        map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        entries = (int) (size / ENTRY_SIZE);
+    }
+
+    /** Número de entradas (pares posição/lance) do livro. */
+    public int size() { return entries; }
+
+    /**
+     * Lance do livro para a posição (sorteado com probabilidade proporcional ao
+     * peso), na codificação Polyglot; -1 se a posição não está no livro.
+     */
+    public int probe(long key) {
+        int first = lowerBound(key);
+        int total = 0;
+        int end = first;
+        for (; end < entries && map.getLong(end * ENTRY_SIZE) == key; end++) total += weight(end);
+        if (end == first) return -1;
+        if (total == 0) return move(first);
+
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (int i = first; i < end; i++) {
+            pick -= weight(i);
+            if (pick < 0) return move(i);
+        }
+        return move(first);
+    }
+
+    // Primeira entrada com chave >= key (ordem sem sinal)
+    private int lowerBound(long key) {
+        int lo = 0, hi = entries;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(map.getLong(mid * ENTRY_SIZE), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int move(int i) { return map.getShort(i * ENTRY_SIZE + 8) & 0xFFFF; }
+
+    private int weight(int i) { return map.getShort(i * ENTRY_SIZE + 10) & 0xFFFF; }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- Codificação Polyglot dos lances (casas na convenção do Board: a8 = 0 ... h1 = 63) ---
+
+    /** Lance Polyglot; promotion é o tipo da peça (Piece.KNIGHT..Piece.QUEEN) ou 0. */
+    public static int encodeMove(int from, int to, int promotion) {
+        return (to ^ 56) | (from ^ 56) << 6 | promotion << 12;
+    }
+
+    public static int from(int move) { return ((move >>> 6) & 63) ^ 56; }
+
+    public static int to(int move) { return (move & 63) ^ 56; }
+
+    /** Tipo da peça de promoção (Piece.KNIGHT..Piece.QUEEN), ou 0. */
+    public static int promotion(int move) { return (move >>> 12) & 7; }
+}
@@ -0,0 +1,162 @@
+package engine;
+
+import controller.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Busca paralela "Lazy SMP": N threads buscam a mesma raiz, cada uma sobre a sua
+ * cópia do Game, compartilhando apenas a TranspositionTable (que já é lock-free).
+ *
+ * A thread que chama search() é a principal: aplica os limites, notifica o
+ * listener e fornece o resultado. Os ajudantes buscam sem limite de tempo, em
+ * profundidades defasadas (ver Search.skipDepth), e só servem para encher a
+ * tabela com entradas que cortam a árvore da principal; quando ela termina,
+ * são interrompidos e aguardados antes do retorno.
+ *
+ * Os workers (uma Search por thread) são mantidos entre as buscas e só recebem a
+ * nova posição, de modo que o histórico de cada um é envelhecido, não zerado. Por
+ * isso as buscas são serializadas: uma chamada concorrente a search() espera a
+ * anterior terminar.
+ */
+public final class ParallelSearch {
+
+    private static final AtomicInteger POOL_IDS = new AtomicInteger();
+
+    private final TranspositionTable tt;
+    private int threads;
+    private ExecutorService helpers;
+    private Search[] workers;
+    private Search.Listener listener;
+    private volatile Search[] running;
+
+    // Buscas são numeradas ao serem reservadas (reserve()); stop() interrompe todas as
+    // reservadas até ali, mesmo as que ainda não vincularam os workers
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong stoppedUpTo = new AtomicLong();
+
+    public ParallelSearch(TranspositionTable tt, int threads) {
+        this.tt = tt;
+        setThreads(threads);
+    }
+
+    public int getThreads() { return threads; }
+
+    /** Número total de threads (principal + ajudantes), no mínimo 1. */
+    public synchronized void setThreads(int threads) {
+        int n = Math.max(1, threads);
+        if (n == this.threads) return;
+        shutdown();
+        this.threads = n;
+        this.workers = null;
+    }
+
+    public void setListener(Search.Listener listener) { this.listener = listener; }
+
+    /**
+     * Reserva a próxima busca, a ser feita com search(game, limits, ticket). Quem dispara a
+     * busca noutra thread reserva antes: um stop() que chegue antes de ela começar vale para ela.
+     */
+    public long reserve() { return reserved.incrementAndGet(); }
+
+    /** Busca a posição de game (que não é alterado) e devolve o resultado da thread principal. */
+    public Search.Result search(Game game, SearchLimits limits) {
+        return search(game, limits, reserve());
+    }
+
+    /** Como search(game, limits), para uma busca reservada com reserve(). */
+    public synchronized Search.Result search(Game game, SearchLimits limits, long ticket) {
+        if (workers == null) {
+            workers = new Search[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Search(game.copy(), tt);
+                workers[i].setHelperId(i);
+            }
+        } else {
+            for (Search s : workers) s.rebind(game.copy());
+        }
+        Search[] workers = this.workers;
+        running = workers;
+        // Depois de publicar os workers: stop() ou os vê em running, ou já marcou este ticket
+        if (stoppedUpTo.get() >= ticket) {
+            for (Search s : workers) s.stop();
+        }
+        tt.newSearch(); // uma vez por busca, não por thread
+
+        List<Future<?>> futures = new ArrayList<>(threads - 1);
+        SearchLimits helperLimits = new SearchLimits().depth(limits.getDepth());
+        for (int i = 1; i < threads; i++) {
+            Search helper = workers[i];
+            futures.add(helperPool().submit(() -> helper.run(helperLimits)));
+        }
+
+        Search main = workers[0];
+        Search.Listener l = listener;
+        main.setListener(l == null ? null : r -> l.onIteration(new Search.Result(
+                r.bestMove, r.score, r.depth, totalNodes(workers), r.timeMillis, r.pv)));
+        Search.Result result;
+        try {
+            result = main.run(limits);
+        } finally {
+            for (int i = 1; i < threads; i++) workers[i].stop();
+            awaitHelpers(futures);
+            running = null;
+        }
+        return new Search.Result(result.bestMove, result.score, result.depth,
+                totalNodes(workers), result.timeMillis, result.pv);
+    }
+
+    /** Interrompe a busca em andamento e as reservadas que ainda não começaram (seguro a partir de outra thread). */
+    public void stop() {
+        stoppedUpTo.accumulateAndGet(reserved.get(), Math::max);
+        Search[] workers = running;
+        if (workers == null) return;
+        for (Search s : workers) s.stop();
+    }
+
+    /** Encerra as threads ajudantes (são recriadas na próxima busca, se preciso). */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+            helpers = null;
+        }
+    }
+
+    private ExecutorService helperPool() {
+        if (helpers == null) {
+            int pool = POOL_IDS.incrementAndGet();
+            AtomicInteger ids = new AtomicInteger();
+            helpers = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread t = new Thread(r, "search-" + pool + "-helper-" + ids.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return helpers;
+    }
+
+    private static void awaitHelpers(List<Future<?>> futures) {
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falha em thread auxiliar da busca", e.getCause());
+            }
+        }
+    }
+
+    private static long totalNodes(Search[] workers) {
+        long total = 0;
+        for (Search s : workers) total += s.getNodes();
+        return total;
+    }
+}
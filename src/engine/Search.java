@@ -0,0 +1,390 @@
+package engine;
+
+import controller.Game;
+import controller.GameStatus;
+import controller.MoveUndo;
+import model.board.MoveList;
+import model.board.PackedMove;
+import model.pieces.Piece;
+
+/**
+ * Busca negamax com poda alfa-beta e aprofundamento iterativo.
+ *
+ * Cada iteração completa a profundidade d e guarda a variante principal (PV);
+ * a seguinte começa pelo melhor lance anterior. A busca termina ao atingir a
+ * profundidade, o tempo ou o número de nós dos SearchLimits (ou por stop()) e
+ * devolve o melhor lance encontrado até ali. Opera in-place no Game recebido
+ * com makeMove/unmakeMove, portanto deve receber uma cópia exclusiva.
+ */
+public final class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int MAX_PLY = 128;
+
+    /** Resultado de uma iteração (ou da busca inteira). */
+    public static final class Result {
+        public final int bestMove;
+        public final int score;
+        public final int depth;
+        public final long nodes;
+        public final long timeMillis;
+        public final int[] pv;
+
+        Result(int bestMove, int score, int depth, long nodes, long timeMillis, int[] pv) {
+            this.bestMove = bestMove;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.timeMillis = timeMillis;
+            this.pv = pv;
+        }
+
+        /** Nós por segundo da busca até este ponto. */
+        public long nps() {
+            return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+        }
+
+        /** Score é de mate (positivo = o lado a jogar dá mate)? */
+        public boolean isMate() {
+            return Math.abs(score) >= MATE - MAX_PLY;
+        }
+
+        /** Lances até o mate (negativo quando o lado a jogar leva mate). */
+        public int mateIn() {
+            int plies = MATE - Math.abs(score);
+            return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+        }
+    }
+
+    /** Recebe o resultado de cada iteração concluída (ex.: linhas "info" do UCI). */
+    public interface Listener {
+        void onIteration(Result result);
+    }
+
+    private Game game;
+    private final TranspositionTable tt;
+    private final MoveList[] lists = new MoveList[MAX_PLY];
+    private final MoveUndo[] undos = new MoveUndo[MAX_PLY];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final MoveOrderer orderer = new MoveOrderer();
+    private final int[] seeGain = new int[StaticExchange.MAX_EXCHANGE];
+
+    // Lazy SMP: ajudantes (id > 0) pulam profundidades em fases diferentes, para que
+    // as threads não busquem todas a mesma iteração ao mesmo tempo
+    private static final int[] SKIP_SIZE  = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+    private int helperId;
+
+    private Listener listener;
+    private volatile boolean stopRequested;
+    private boolean aborted;
+    private long nodes;
+    private long nodeLimit;
+    private long startNanos;
+    private long deadlineNanos;
+    private int rootDepth;
+
+    public Search(Game game, TranspositionTable tt) {
+        this.game = game;
+        this.tt = tt;
+        for (int i = 0; i < MAX_PLY; i++) {
+            lists[i] = new MoveList();
+            undos[i] = new MoveUndo();
+        }
+    }
+
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    // Reaproveita a instância (buffers, killers e histórico) numa nova posição: a
+    // ParallelSearch mantém os seus workers entre as buscas
+    void rebind(Game game) {
+        this.game = game;
+        this.stopRequested = false;
+    }
+
+    /** 0 = thread principal; ajudantes da busca paralela recebem ids 1..N-1. */
+    void setHelperId(int helperId) { this.helperId = helperId; }
+
+    /**
+     * Pede a interrupção da busca (seguro a partir de outra thread). Vale também se
+     * chamado antes de search() começar: a busca então conclui só a primeira iteração.
+     */
+    public void stop() { stopRequested = true; }
+
+    /** Nós visitados (leitura aproximada quando feita de outra thread). */
+    public long getNodes() { return nodes; }
+
+    /** Killers, histórico e estatísticas de corte da última busca. */
+    public MoveOrderer getMoveOrderer() { return orderer; }
+
+    /** Executa a busca com os limites dados e devolve o melhor lance encontrado. */
+    public Result search(SearchLimits limits) {
+        tt.newSearch();
+        return run(limits);
+    }
+
+    // Busca sem avançar a idade da TT: na busca paralela, a ParallelSearch a avança uma vez
+    // antes de iniciar as threads, que compartilham a mesma tabela
+    Result run(SearchLimits limits) {
+        aborted = false;
+        nodes = 0;
+        nodeLimit = limits.getNodes();
+        startNanos = System.nanoTime();
+        deadlineNanos = limits.getMoveTimeMillis() > 0
+                ? startNanos + limits.getMoveTimeMillis() * 1_000_000L
+                : Long.MAX_VALUE;
+        orderer.newSearch();
+
+        MoveList root = lists[0];
+        root.clear();
+        game.generateMoves(root);
+        if (root.isEmpty()) {
+            int score = game.getStatus() == GameStatus.CHECKMATE ? -MATE : 0;
+            return new Result(PackedMove.NONE, score, 0, 0, 0, new int[0]);
+        }
+
+        int bestMove = root.get(0);
+        Result result = new Result(bestMove, 0, 0, 0, 0, new int[]{bestMove});
+        for (int depth = 1; depth <= limits.getDepth(); depth++) {
+            if (skipDepth(depth)) continue;
+            rootDepth = depth;
+            int score = searchRoot(depth, bestMove);
+            int iterationBest = pvLength[0] > 0 ? pv[0][0] : PackedMove.NONE;
+            if (iterationBest != PackedMove.NONE) {
+                // Mesmo interrompida, a iteração já confirmou (ou superou) o lance anterior,
+                // que é sempre o primeiro a ser buscado
+                bestMove = iterationBest;
+                result = new Result(bestMove, score, depth, nodes, elapsedMillis(), currentPv());
+            }
+            if (aborted || stopRequested) break;
+            if (listener != null) listener.onIteration(result);
+            if (result.isMate() && MATE - Math.abs(score) <= depth) break; // mate mais curto já visto
+        }
+        return new Result(result.bestMove, result.score, result.depth, nodes, elapsedMillis(), result.pv);
+    }
+
+    private boolean skipDepth(int depth) {
+        if (helperId == 0 || depth == 1) return false;
+        int i = (helperId - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    private int searchRoot(int depth, int previousBest) {
+        MoveList moves = lists[0];
+        orderer.score(moves, 0, previousBest, game.isWhiteToMove());
+        pvLength[0] = 0;
+        long key = game.positionKey();
+
+        int alpha = -INFINITY;
+        MoveUndo undo = undos[0];
+        for (int i = 0; i < moves.size(); i++) {
+            orderer.next(moves, 0, i);
+            int m = moves.get(i);
+            game.makeMove(m, undo);
+            int score = i == 0 ? -negamax(depth - 1, -INFINITY, -alpha, 1) : -scout(depth - 1, alpha, INFINITY, 1);
+            game.unmakeMove(undo);
+            if (aborted) break;
+            if (score > alpha) {
+                alpha = score;
+                updatePv(0, m);
+            }
+        }
+        if (!aborted && pvLength[0] > 0) tt.store(key, pv[0][0], alpha, depth, TranspositionTable.BOUND_EXACT);
+        return alpha;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) return quiescence(alpha, beta, ply);
+        pvLength[ply] = 0;
+        if ((++nodes & 2047) == 0) checkLimits();
+        if (aborted) return 0;
+
+        // Repetição (no jogo ou no caminho da busca) e regra dos 50 lances valem empate
+        if (game.isRepetition() || game.getHalfmoveClock() >= 100) return 0;
+
+        // Final nas tablebases: resultado exato, com a distância até o mate a partir da raiz
+        int tb = game.probeTablebase();
+        if (tb != Tablebases.UNKNOWN) return tablebaseScore(tb, ply);
+        long key = game.positionKey();
+
+        boolean inCheck = game.inCheck(game.isWhiteToMove());
+        if (inCheck) depth++; // extensão de xeque: não para a busca no meio de um mate
+        if (ply >= MAX_PLY - 1) return evaluate();
+
+        int ttMove = PackedMove.NONE;
+        long entry = tt.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            // Sem cortes da TT em nós de PV (janela aberta): a variante principal fica completa
+            if (TranspositionTable.depth(entry) >= depth && beta - alpha == 1) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = lists[ply];
+        moves.clear();
+        game.generateMoves(moves);
+        if (moves.isEmpty()) return inCheck ? -MATE + ply : 0;
+        boolean white = game.isWhiteToMove();
+        orderer.score(moves, ply, ttMove, white);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        MoveUndo undo = undos[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            orderer.next(moves, ply, i);
+            int m = moves.get(i);
+            game.makeMove(m, undo);
+            int score = i == 0 ? -negamax(depth - 1, -beta, -alpha, ply + 1) : -scout(depth - 1, alpha, beta, ply + 1);
+            game.unmakeMove(undo);
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = m;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, m);
+                    if (alpha >= beta) {
+                        orderer.cutoff(m, ply, depth, white, i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : best > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        tt.store(key, bestMove, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Busca de variante principal (PVS): depois do primeiro lance, os demais são
+     * testados com janela nula (só "é melhor que alpha?") e rebuscados com a janela
+     * inteira apenas se passarem. Devolve o score do ponto de vista de quem jogou.
+     */
+    private int scout(int depth, int alpha, int beta, int ply) {
+        int score = negamax(depth, -alpha - 1, -alpha, ply);
+        if (-score > alpha && -score < beta && !aborted) score = negamax(depth, -beta, -alpha, ply);
+        return score;
+    }
+
+    /**
+     * Quiescência: além do horizonte só capturas e promoções a dama, até a posição
+     * ficar quieta. Fora de xeque o lado a jogar pode "ficar parado" (stand pat) com
+     * a avaliação estática, e capturas que perdem material pela SEE são podadas;
+     * em xeque todas as evasões são buscadas.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if ((++nodes & 2047) == 0) checkLimits();
+        if (aborted) return 0;
+        if (ply >= MAX_PLY - 1) return evaluate();
+
+        boolean white = game.isWhiteToMove();
+        boolean inCheck = game.inCheck(white);
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluate();
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+
+        MoveList moves = lists[ply];
+        moves.clear();
+        if (inCheck) {
+            game.generateMoves(moves);
+            if (moves.isEmpty()) return -MATE + ply;
+        } else {
+            game.generateCaptures(moves);
+        }
+        orderer.score(moves, ply, PackedMove.NONE, white);
+
+        MoveUndo undo = undos[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            orderer.next(moves, ply, i);
+            int m = moves.get(i);
+            if (!inCheck) {
+                if (PackedMove.isPromotion(m) && PackedMove.promotion(m) != Piece.QUEEN) continue;
+                if (StaticExchange.see(game.getBoard(), m, seeGain) < 0) continue; // captura perdedora
+            }
+            game.makeMove(m, undo);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.unmakeMove(undo);
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, m);
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int evaluate() {
+        return Evaluator.evaluate(game.getBoard(), game.isWhiteToMove());
+    }
+
+    private void checkLimits() {
+        if (rootDepth <= 1) return; // sempre conclui a primeira iteração
+        if (stopRequested
+                || (nodeLimit > 0 && nodes >= nodeLimit)
+                || System.nanoTime() >= deadlineNanos) {
+            aborted = true;
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, childLength);
+        pvLength[ply] = childLength + 1;
+    }
+
+    private int[] currentPv() {
+        int[] line = new int[pvLength[0]];
+        System.arraycopy(pv[0], 0, line, 0, line.length);
+        return line;
+    }
+
+    // Mate além de MAX_PLY não cabe na faixa de mates: vira vitória "sem distância", logo abaixo dela
+    static int tablebaseScore(int result, int ply) {
+        int wdl = Tablebases.wdl(result);
+        if (wdl == Tablebases.DRAW) return 0;
+        int plies = ply + Tablebases.dtm(result);
+        int score = plies < MAX_PLY ? MATE - plies : MATE - MAX_PLY - 1;
+        return wdl == Tablebases.WIN ? score : -score;
+    }
+
+    // Scores de mate são guardados relativos ao nó, não à raiz
+    static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
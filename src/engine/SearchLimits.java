@@ -0,0 +1,47 @@
+package engine;
+
+/**
+ * Limites de uma busca: profundidade máxima, tempo por lance e/ou número de nós.
+ * A busca para no primeiro limite atingido; 0 significa "sem limite" para tempo e nós.
+ */
+public final class SearchLimits {
+
+    public static final int MAX_DEPTH = 64;
+
+    private int depth = MAX_DEPTH;
+    private long moveTimeMillis;
+    private long nodes;
+
+    public int getDepth() { return depth; }
+    public long getMoveTimeMillis() { return moveTimeMillis; }
+    public long getNodes() { return nodes; }
+
+    public SearchLimits depth(int depth) {
+        this.depth = Math.max(1, Math.min(depth, MAX_DEPTH));
+        return this;
+    }
+
+    public SearchLimits moveTime(long millis) {
+        this.moveTimeMillis = Math.max(0, millis);
+        return this;
+    }
+
+    public SearchLimits nodes(long nodes) {
+        this.nodes = Math.max(0, nodes);
+        return this;
+    }
+
+    /**
+     * Força da IA em níveis de 1 (fraca, instantânea) a 10 (forte): o nível controla
+     * a profundidade máxima e o tempo por lance.
+     */
+    public static SearchLimits forLevel(int level) {
+        int l = Math.max(1, Math.min(level, 10));
+        return new SearchLimits().depth(l + 1).moveTime(150L * l);
+    }
+
+    @Override
+    public String toString() {
+        return "depth=" + depth + " movetime=" + moveTimeMillis + " nodes=" + nodes;
+    }
+}
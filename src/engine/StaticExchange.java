@@ -0,0 +1,69 @@
+package engine;
+
+import model.board.Board;
+import model.board.PackedMove;
+import model.pieces.Piece;
+
+/**
+ * Avaliação estática de trocas (SEE): saldo material da sequência de capturas
+ * numa casa, com cada lado recapturando sempre com a peça menos valiosa e
+ * podendo parar quando continuar não compensa.
+ *
+ * Os atacantes vêm de Board.attackersTo com a ocupação atualizada a cada
+ * captura, de modo que peças "atrás" de outra (raios-x de torre, bispo e dama)
+ * entram na troca assim que a da frente sai. Cravadas são ignoradas.
+ */
+public final class StaticExchange {
+
+    // Valores da troca: o rei "vale" mais que tudo, para só capturar por último
+    private static final int[] VALUES = {100, 300, 300, 500, 900, 20000};
+
+    /** Tamanho do buffer de see(board, move, gain): uma entrada por captura da sequência. */
+    public static final int MAX_EXCHANGE = 32;
+
+    private StaticExchange() { /* utilitário */ }
+
+    /** Saldo em centipeões do lance (captura ou não) para o lado que o joga. */
+    public static int see(Board board, int move) {
+        return see(board, move, new int[MAX_EXCHANGE]);
+    }
+
+    /** Como see(board, move), sem alocar: gain (MAX_EXCHANGE posições) é só rascunho. */
+    public static int see(Board board, int move, int[] gain) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        boolean white = board.get(from).isWhite();
+
+        int victim = PackedMove.captured(move);
+        gain[0] = victim < 0 ? 0 : VALUES[victim];
+
+        long occ = board.occupied() & ~(1L << from);
+        if (PackedMove.isEnPassant(move)) occ &= ~(1L << (to + (white ? 8 : -8)));
+
+        int attackerValue = VALUES[PackedMove.piece(move)];
+        if (PackedMove.isPromotion(move)) {
+            int promoted = VALUES[PackedMove.promotion(move)] - VALUES[Piece.PAWN];
+            gain[0] += promoted;
+            attackerValue += promoted;
+        }
+
+        // gain[d]: saldo de quem faz a d-ésima recaptura, se a troca parasse ali
+        boolean side = !white;
+        int d = 0;
+        while (true) {
+            long attackers = board.attackersTo(to, side, occ) & occ;
+            if (attackers == 0) break;
+            d++;
+            gain[d] = attackerValue - gain[d - 1];
+            int type = Piece.PAWN;
+            long bb = attackers & board.bitboard(side, type);
+            while (bb == 0) bb = attackers & board.bitboard(side, ++type);
+            occ &= ~(bb & -bb);
+            attackerValue = VALUES[type];
+            side = !side;
+        }
+        // Cada lado só recaptura se isso for melhor que parar
+        for (; d > 0; d--) gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        return gain[0];
+    }
+}
@@ -0,0 +1,507 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import model.board.Bitboards;
+import model.pieces.Piece;
+
+/**
+ * Gera as tablebases (ver Tablebases) por análise retrógrada.
+ *
+ * Para cada material: (1) uma passada inicial joga os lances de cada posição;
+ * mates, afogamentos e lances que saem da tabela (capturas e promoções, resolvidos
+ * nas tabelas menores já geradas) são classificados, e os lances internos são
+ * contados. (2) Depois, nível a nível (distância em meios-lances), cada posição
+ * resolvida no nível L propaga para as predecessoras obtidas "desfazendo" lances:
+ * derrota em L torna a predecessora vitória em L+1; vitória em L desconta um
+ * sucessor, e a predecessora sem sucessores restantes é derrota. O que sobra é
+ * empate.
+ *
+ * As passadas dividem o espaço de índices entre as threads; os contadores ficam
+ * num AtomicIntegerArray (4 bytes por posição), de modo que a maior tabela de 4
+ * peças (com peões, 16,8 milhões de posições) usa cerca de 100 MB.
+ *
+ * Uso:
+ *   java -cp bin engine.TablebaseGenerator [-threads N] diretório [KQvK KRvKP ...]
+ * Sem materiais, gera todas as tabelas de 3 e 4 peças, na ordem de dependência.
+ */
+public final class TablebaseGenerator {
+
+    // Célula: estado (3 bits), distância (8 bits), lances internos ainda não vencedores (8 bits)
+    private static final int UNKNOWN = 0, WIN = 1, LOSS = 2, ILLEGAL = 3, PENDING_LOSS = 4;
+    private static final int MAX_DTM = 254;
+    private static final int NO_LOSS = 255; // extLoss: algum lance de saída não perde
+
+    private static final int CHUNKS_PER_THREAD = 16;
+
+    private final Path dir;
+    private final int threads;
+    private final Tablebases tablebases;
+    private final ExecutorService pool;
+
+    // Tabela em geração
+    private Tablebases.Table table;
+    private AtomicIntegerArray cells;
+    private byte[] extWin;  // 1 + menor derrota do adversário por captura/promoção (0 = nenhuma)
+    private byte[] extLoss; // 1 + maior vitória do adversário por captura/promoção (0 = nenhuma, NO_LOSS)
+    private volatile int maxLevel;
+
+    public TablebaseGenerator(Path dir, int threads) throws IOException {
+        this.dir = dir;
+        this.threads = Math.max(1, threads);
+        Files.createDirectories(dir);
+        this.tablebases = new Tablebases(dir);
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "tablebase");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int i = 0;
+        if (args.length > 1 && args[0].equals("-threads")) {
+            threads = Integer.parseInt(args[1]);
+            i = 2;
+        }
+        if (i >= args.length) {
+            System.err.println("Uso: java -cp bin engine.TablebaseGenerator [-threads N] diretório [KQvK ...]");
+            System.exit(2);
+        }
+        TablebaseGenerator gen = new TablebaseGenerator(Paths.get(args[i]), threads);
+        List<String> names = i + 1 < args.length
+                ? Arrays.asList(Arrays.copyOfRange(args, i + 1, args.length))
+                : allTables();
+        long start = System.nanoTime();
+        for (String name : names) gen.generate(name);
+        System.out.printf("%d tabelas em %.1f s%n", names.size(), (System.nanoTime() - start) / 1e9);
+        gen.close();
+    }
+
+    /** Todos os materiais de 3 e 4 peças (exceto empates triviais), em ordem de dependência. */
+    public static List<String> allTables() {
+        List<String> names = new ArrayList<>();
+        for (int sig = 0; sig < 1 << 20; sig++) {
+            int pieces = 0;
+            boolean ok = true;
+            for (int f = 0; f < 10; f++) {
+                int c = (sig >>> (f * 2)) & 3;
+                pieces += c;
+                ok &= c < 3;
+            }
+            if (!ok || pieces < 1 || pieces > Tablebases.MAX_PIECES - 2 || Tablebases.isTrivialDraw(sig)) continue;
+            String name = Tablebases.name(sig);
+            if (!names.contains(name)) names.add(name);
+        }
+        // Capturas reduzem o número de peças e promoções o de peões: ambos vêm antes
+        names.sort(Comparator.comparingInt(String::length)
+                .thenComparingLong(s -> s.chars().filter(ch -> ch == 'P').count())
+                .thenComparing(Comparator.naturalOrder()));
+        return names;
+    }
+
+    public void close() throws IOException {
+        pool.shutdownNow();
+        tablebases.close();
+    }
+
+    /** Gera e grava a tabela do material (ex.: "KRvKP"), que passa a valer para as seguintes. */
+    public void generate(String name) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        table = new Tablebases.Table(name);
+        int size = table.size;
+        cells = new AtomicIntegerArray(size);
+        extWin = new byte[size];
+        extLoss = new byte[size];
+        maxLevel = 0;
+
+        parallel((from, to) -> {
+            Worker w = new Worker();
+            for (int idx = from; idx < to; idx++) w.init(idx);
+        });
+
+        AtomicBoolean changed = new AtomicBoolean(true);
+        for (int level = 0; changed.get() || level <= maxLevel; level++) {
+            int l = level;
+            changed.set(false);
+            if (level > 0) parallel((from, to) -> promote(from, to, l));
+            parallel((from, to) -> {
+                Worker w = new Worker();
+                for (int idx = from; idx < to; idx++) {
+                    if (w.propagate(idx, l)) changed.set(true);
+                }
+            });
+            if (level > MAX_DTM) throw new IllegalStateException("Distância acima de " + MAX_DTM + " em " + name);
+        }
+
+        Path file = dir.resolve(name + Tablebases.EXTENSION);
+        int[] stats = write(file);
+        tablebases.load(file);
+        System.out.printf("%-8s %,11d posições: %,d vitórias, %,d empates, %,d derrotas, mate mais longo %d meios-lances (%.1f s)%n",
+                name, size, stats[WIN], stats[UNKNOWN], stats[LOSS], stats[4], (System.nanoTime() - start) / 1e9);
+        cells = null;
+        extWin = extLoss = null;
+    }
+
+    // Nível L: vitórias por captura/promoção e derrotas adiadas que vencem neste nível
+    private void promote(int from, int to, int level) {
+        for (int idx = from; idx < to; idx++) {
+            int c = cells.get(idx);
+            int state = state(c);
+            if (state == UNKNOWN && (extWin[idx] & 0xFF) == level) cells.set(idx, cell(WIN, level, 0));
+            else if (state == PENDING_LOSS && dtm(c) == level) cells.set(idx, cell(LOSS, level, 0));
+        }
+    }
+
+    private static int cell(int state, int dtm, int count) { return state | dtm << 3 | count << 11; }
+
+    private static int state(int c) { return c & 7; }
+
+    private static int dtm(int c) { return (c >>> 3) & 0xFF; }
+
+    private static int count(int c) { return c >>> 11; }
+
+    private void raiseMaxLevel(int level) {
+        synchronized (this) {
+            if (level > maxLevel) maxLevel = level;
+        }
+    }
+
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    private void parallel(Range task) throws InterruptedException {
+        int size = table.size;
+        int chunks = threads * CHUNKS_PER_THREAD;
+        int step = (size + chunks - 1) / chunks;
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int from = 0; from < size; from += step) {
+            int f = from, t = Math.min(size, from + step);
+            futures.add(pool.submit(() -> task.run(f, t)));
+        }
+        try {
+            for (Future<?> fu : futures) fu.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // --- Arquivo ---
+
+    // Retorna contagens por estado (UNKNOWN = empates) e, em [4], a maior distância
+    private int[] write(Path file) throws IOException {
+        int size = table.size;
+        int[] stats = new int[5];
+        int maxDtm = 1;
+        for (int idx = 0; idx < size; idx++) {
+            int c = cells.get(idx);
+            if (state(c) == WIN || state(c) == LOSS) maxDtm = Math.max(maxDtm, dtm(c));
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(maxDtm);
+
+        byte[] wdl = new byte[(size + 3) / 4];
+        byte[] dtm = new byte[(int) (((long) size * bits + 7) / 8) + 8];
+        long bit = 0;
+        for (int idx = 0; idx < size; idx++, bit += bits) {
+            int c = cells.get(idx);
+            int s = state(c);
+            int code = s == WIN ? Tablebases.WIN : s == LOSS ? Tablebases.LOSS
+                    : s == ILLEGAL ? Tablebases.ILLEGAL : Tablebases.DRAW;
+            stats[s == WIN || s == LOSS || s == ILLEGAL ? s : UNKNOWN]++;
+            wdl[idx >>> 2] |= code << ((idx & 3) * 2);
+            if (s != WIN && s != LOSS) continue;
+            stats[4] = Math.max(stats[4], dtm(c));
+            // Bits do mais significativo para o menos, a partir do bit "bit" do fluxo
+            for (int b = bits - 1, v = dtm(c); b >= 0; b--) {
+                long p = bit + (bits - 1 - b);
+                if (((v >>> b) & 1) != 0) dtm[(int) (p >>> 3)] |= 0x80 >>> (p & 7);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(Tablebases.HEADER);
+        header.putInt(Tablebases.MAGIC).put((byte) table.n).put((byte) bits);
+        header.clear();
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (ByteBuffer buf : new ByteBuffer[]{header, ByteBuffer.wrap(wdl), ByteBuffer.wrap(dtm)}) {
+                while (buf.hasRemaining()) out.write(buf);
+            }
+        }
+        return stats;
+    }
+
+    /** Estado de uma thread: casas da posição atual e buffers para os lances. */
+    private final class Worker {
+
+        private final Tablebases.Table t = table;
+        private final int n = t.n;
+        private final int[] sq = new int[n];
+        private final int[] scratch = new int[n];
+        private final int[] seen = new int[256];
+        private final int[] childColors = new int[n];
+        private final int[] childTypes = new int[n];
+        private final int[] childSquares = new int[n];
+        private final Tablebases.Scratch probeScratch = new Tablebases.Scratch();
+
+        // Passada inicial: valida a posição, joga os lances e conta os internos
+        void init(int idx) {
+            boolean whiteToMove = t.decode(idx, sq);
+            int stm = whiteToMove ? 0 : 1;
+            // Índices que não são a forma canônica da sua posição nunca são consultados
+            if (!valid(stm) || t.index(sq, whiteToMove) != idx) {
+                cells.set(idx, cell(ILLEGAL, 0, 0));
+                return;
+            }
+
+            long occ = occupancy();
+            int internal = 0, legal = 0;
+            int win = 0, loss = 0;
+            boolean noLoss = false;
+            for (int i = 0; i < n; i++) {
+                if (t.colors[i] != stm) continue;
+                int from = sq[i];
+                for (long targets = targets(i, occ, stm); targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    int captured = pieceAt(to);
+                    sq[i] = to;
+                    boolean ok = !attacked(sq[stm], 1 - stm, (occ & ~(1L << from)) | (1L << to), captured);
+                    sq[i] = from;
+                    if (!ok) continue;
+
+                    boolean promotes = t.types[i] == Piece.PAWN && (to < 8 || to >= 56);
+                    if (captured < 0 && !promotes) {
+                        legal++;
+                        System.arraycopy(sq, 0, scratch, 0, n);
+                        scratch[i] = to;
+                        internal = addDistinct(internal, t.index(scratch, !whiteToMove));
+                        continue;
+                    }
+                    for (int promo = promotes ? Piece.QUEEN : 0; promo >= (promotes ? Piece.KNIGHT : 0); promo--) {
+                        legal++;
+                        int r = probeChild(i, to, captured, promotes ? promo : t.types[i], !whiteToMove);
+                        int wdl = Tablebases.wdl(r);
+                        if (wdl == Tablebases.LOSS) {
+                            int d = Tablebases.dtm(r) + 1;
+                            win = win == 0 ? d : Math.min(win, d);
+                        } else if (wdl == Tablebases.WIN) {
+                            loss = Math.max(loss, Tablebases.dtm(r) + 1);
+                        } else {
+                            noLoss = true;
+                        }
+                    }
+                }
+            }
+
+            if (legal == 0) {
+                // Mate (derrota em 0) ou afogamento (empate: nunca é resolvido)
+                cells.set(idx, attacked(sq[stm], 1 - stm, occ, -1) ? cell(LOSS, 0, 0) : cell(UNKNOWN, 0, 0));
+                return;
+            }
+            extWin[idx] = (byte) win;
+            extLoss[idx] = (byte) (noLoss || win != 0 ? NO_LOSS : loss);
+            if (internal == 0 && win == 0 && !noLoss) {
+                cells.set(idx, cell(PENDING_LOSS, loss, 0)); // todos os lances saem da tabela e perdem
+                raiseMaxLevel(loss);
+            } else {
+                cells.set(idx, cell(UNKNOWN, 0, internal));
+                if (win != 0) raiseMaxLevel(win);
+            }
+        }
+
+        // Posição resolvida no nível L: avisa as predecessoras
+        boolean propagate(int idx, int level) {
+            int c = cells.get(idx);
+            int state = state(c);
+            if ((state != WIN && state != LOSS) || dtm(c) != level) return false;
+            boolean whiteToMove = t.decode(idx, sq);
+            int mover = whiteToMove ? 1 : 0; // quem fez o último lance
+            long occ = occupancy();
+            boolean changed = false;
+
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (t.colors[i] != mover) continue;
+                int at = sq[i];
+                for (long prev = unmoves(i, occ); prev != 0; prev &= prev - 1) {
+                    int from = Long.numberOfTrailingZeros(prev);
+                    sq[i] = from;
+                    // Antes do lance, o lado que agora joga não podia estar em xeque
+                    boolean ok = !(t.types[i] == Piece.KING && (Bitboards.KING_ATTACKS[sq[0]] & (1L << sq[1])) != 0)
+                            && !attacked(sq[1 - mover], mover, (occ & ~(1L << at)) | (1L << from), -1);
+                    if (ok) {
+                        System.arraycopy(sq, 0, scratch, 0, n);
+                        count = addDistinct(count, t.index(scratch, mover == 0));
+                    }
+                    sq[i] = at;
+                }
+            }
+
+            for (int k = 0; k < count; k++) {
+                int p = seen[k];
+                changed |= state == LOSS ? markWin(p, level + 1) : countDown(p, level);
+            }
+            return changed;
+        }
+
+        private boolean markWin(int p, int dtm) {
+            for (;;) {
+                int c = cells.get(p);
+                if (state(c) != UNKNOWN) return false;
+                if (cells.compareAndSet(p, c, cell(WIN, dtm, 0))) return true;
+            }
+        }
+
+        // Sucessor p -> vitória do adversário no nível L: um lance interno a menos
+        private boolean countDown(int p, int level) {
+            for (;;) {
+                int c = cells.get(p);
+                if (state(c) != UNKNOWN || count(c) == 0) return false;
+                int left = count(c) - 1;
+                int next = cell(UNKNOWN, 0, left);
+                int ext = extLoss[p] & 0xFF;
+                boolean lost = left == 0 && extWin[p] == 0 && ext != NO_LOSS;
+                int dtm = Math.max(level + 1, ext);
+                if (lost) next = dtm == level + 1 ? cell(LOSS, dtm, 0) : cell(PENDING_LOSS, dtm, 0);
+                if (cells.compareAndSet(p, c, next)) {
+                    if (lost && dtm > level + 1) raiseMaxLevel(dtm);
+                    return lost;
+                }
+            }
+        }
+
+        private int addDistinct(int count, int idx) {
+            for (int k = 0; k < count; k++) if (seen[k] == idx) return count;
+            seen[count] = idx;
+            return count + 1;
+        }
+
+        // Casas distintas, peões fora da primeira/última fileira, reis separados, quem não joga fora de xeque
+        private boolean valid(int stm) {
+            long occ = 0;
+            for (int i = 0; i < n; i++) {
+                if (t.types[i] == Piece.PAWN && (sq[i] < 8 || sq[i] >= 56)) return false;
+                occ |= 1L << sq[i];
+            }
+            if (Long.bitCount(occ) != n) return false;
+            if ((Bitboards.KING_ATTACKS[sq[0]] & (1L << sq[1])) != 0) return false;
+            return !attacked(sq[1 - stm], stm, occ, -1);
+        }
+
+        private long occupancy() {
+            long occ = 0;
+            for (int i = 0; i < n; i++) occ |= 1L << sq[i];
+            return occ;
+        }
+
+        private int pieceAt(int s) {
+            for (int i = 0; i < n; i++) if (sq[i] == s) return i;
+            return -1;
+        }
+
+        // Destinos pseudo-legais da peça i (capturas de peças adversárias incluídas)
+        private long targets(int i, long occ, int color) {
+            long own = 0;
+            for (int j = 0; j < n; j++) if (t.colors[j] == color) own |= 1L << sq[j];
+            int s = sq[i];
+            switch (t.types[i]) {
+                case Piece.PAWN: {
+                    long enemy = occ & ~own;
+                    int step = color == 0 ? -8 : 8;
+                    long moves = Bitboards.PAWN_ATTACKS[color][s] & enemy;
+                    int one = s + step;
+                    if ((occ & (1L << one)) == 0) {
+                        moves |= 1L << one;
+                        int startRow = color == 0 ? 6 : 1;
+                        if ((s >>> 3) == startRow && (occ & (1L << (one + step))) == 0) moves |= 1L << (one + step);
+                    }
+                    return moves;
+                }
+                case Piece.KNIGHT: return Bitboards.KNIGHT_ATTACKS[s] & ~own;
+                case Piece.BISHOP: return Bitboards.bishopAttacks(s, occ) & ~own;
+                case Piece.ROOK: return Bitboards.rookAttacks(s, occ) & ~own;
+                case Piece.QUEEN: return Bitboards.queenAttacks(s, occ) & ~own;
+                default: return Bitboards.KING_ATTACKS[s] & ~own;
+            }
+        }
+
+        // Casas de onde a peça i pode ter vindo sem capturar nem promover
+        private long unmoves(int i, long occ) {
+            int s = sq[i];
+            switch (t.types[i]) {
+                case Piece.PAWN: {
+                    int color = t.colors[i];
+                    int back = color == 0 ? 8 : -8;
+                    int row = s >>> 3;
+                    int prev = s + back;
+                    long result = 0;
+                    if (prev >= 8 && prev < 56 && (occ & (1L << prev)) == 0) {
+                        result |= 1L << prev;
+                        if (row == (color == 0 ? 4 : 3) && (occ & (1L << (prev + back))) == 0) result |= 1L << (prev + back);
+                    }
+                    return result;
+                }
+                case Piece.KNIGHT: return Bitboards.KNIGHT_ATTACKS[s] & ~occ;
+                case Piece.BISHOP: return Bitboards.bishopAttacks(s, occ) & ~occ;
+                case Piece.ROOK: return Bitboards.rookAttacks(s, occ) & ~occ;
+                case Piece.QUEEN: return Bitboards.queenAttacks(s, occ) & ~occ;
+                default: return Bitboards.KING_ATTACKS[s] & ~occ;
+            }
+        }
+
+        // A casa s é atacada pelas peças da cor "by" (ignorando a peça capturada "skip")?
+        private boolean attacked(int s, int by, long occ, int skip) {
+            for (int j = 0; j < n; j++) {
+                if (j == skip || t.colors[j] != by) continue;
+                int p = sq[j];
+                long a;
+                switch (t.types[j]) {
+                    case Piece.PAWN: a = Bitboards.PAWN_ATTACKS[by][p]; break;
+                    case Piece.KNIGHT: a = Bitboards.KNIGHT_ATTACKS[p]; break;
+                    case Piece.BISHOP: a = Bitboards.bishopAttacks(p, occ); break;
+                    case Piece.ROOK: a = Bitboards.rookAttacks(p, occ); break;
+                    case Piece.QUEEN: a = Bitboards.queenAttacks(p, occ); break;
+                    default: a = Bitboards.KING_ATTACKS[p]; break;
+                }
+                if ((a & (1L << s)) != 0) return true;
+            }
+            return false;
+        }
+
+        // Resultado (do lado a jogar depois do lance) de uma captura/promoção, na tabela menor
+        private int probeChild(int mover, int to, int captured, int newType, boolean whiteToMove) {
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == captured) continue;
+                childColors[k] = t.colors[j];
+                childTypes[k] = j == mover ? newType : t.types[j];
+                childSquares[k] = j == mover ? to : sq[j];
+                k++;
+            }
+            int r = tablebases.probe(k, childColors, childTypes, childSquares, whiteToMove, probeScratch);
+            if (r == Tablebases.UNKNOWN) {
+                throw new IllegalStateException("Falta a tabela de " + Tablebases.name(
+                        Tablebases.signature(k, childColors, childTypes)) + " para gerar " + t.name);
+            }
+            return r;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Tablebases de finais com até 4 peças (reis incluídos), geradas pelo
+ * TablebaseGenerator e lidas por mapeamento de memória.
+ *
+ * Cada arquivo (ex.: KQvKR.xtb) cobre um material, com o lado mais forte como
+ * brancas; a posição com as cores trocadas é consultada espelhando o tabuleiro.
+ * O índice é rei branco, rei preto e as demais peças, 64 casas cada, com o rei
+ * branco reduzido por simetria ao triângulo a1-d1-d4 (sem peões) ou às colunas
+ * a-d (com peões). Por posição: 2 bits de resultado (vitória/empate/derrota do
+ * lado a jogar, ou posição ilegal) e a distância até o mate em meios-lances,
+ * empacotada com o número de bits que o maior valor da tabela exige.
+ *
+ * Roque e en passant são ignorados: quem consulta só deve fazê-lo sem direitos
+ * de roque nem captura en passant possível (ver Game.probeTablebase).
+ */
+public final class Tablebases implements Closeable {
+
+    public static final int MAX_PIECES = 4;
+
+    /** Resultado do ponto de vista do lado a jogar (ver wdl()). */
+    public static final int DRAW = 0, WIN = 1, LOSS = 2;
+    static final int ILLEGAL = 3;
+
+    /** probe(): posição fora das tablebases carregadas. */
+    public static final int UNKNOWN = -1;
+
+    static final String EXTENSION = ".xtb";
+    static final int MAGIC = 0x58544231; // "XTB1"
+    static final int HEADER = 16;
+
+    private static final String LETTERS = "PNBRQK";
+
+    // Rei branco sem peões: casa -> posição no triângulo a1-d1-d4 (ou -1), e o inverso
+    static final int[] TRIANGLE = new int[64];
+    static final int[] TRIANGLE_SQUARES = new int[10];
+
+    static {
+        Arrays.fill(TRIANGLE, -1);
+        int n = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if (file(sq) <= 3 && rank(sq) <= file(sq)) {
+                TRIANGLE[sq] = n;
+                TRIANGLE_SQUARES[n++] = sq;
+            }
+        }
+    }
+
+    private final Map<Integer, Table> tables = new HashMap<>(); // assinatura de material (as duas cores) -> tabela
+    private final List<FileChannel> channels = new ArrayList<>();
+
+    /** Abre todos os arquivos .xtb do diretório (que pode não existir ainda). */
+    public Tablebases(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path f : files) load(f);
+        }
+    }
+
+    /** Número de tabelas carregadas. */
+    public int size() {
+        return (int) tables.values().stream().distinct().count();
+    }
+
+    /**
+     * Resultado da posição (ver wdl() e dtm()) ou UNKNOWN se não houver tabela.
+     * Só reis, ou rei e uma peça menor contra rei, são empate sem consulta.
+     * A consulta não aloca: usa os vetores de scratch, que são de uma thread só.
+     */
+    public int probe(Board board, boolean whiteToMove, Scratch scratch) {
+        int n = board.pieceCount(true) + board.pieceCount(false);
+        if (n > MAX_PIECES) return UNKNOWN;
+        int[] colors = scratch.colors, types = scratch.types, squares = scratch.squares;
+        int k = 0;
+        for (int c = 0; c < 2; c++) {
+            boolean white = c == 0;
+            for (int i = 0; i < board.pieceCount(white); i++, k++) {
+                colors[k] = c;
+                types[k] = board.pieceAt(white, i).getType();
+                squares[k] = board.pieceSquare(white, i);
+            }
+        }
+        return probe(n, colors, types, squares, whiteToMove, scratch);
+    }
+
+    /** Vitória, empate ou derrota do lado a jogar. */
+    public static int wdl(int result) { return result >>> 16; }
+
+    /** Meios-lances até o mate (0 no empate). */
+    public static int dtm(int result) { return result & 0xFFFF; }
+
+    static int result(int wdl, int dtm) { return wdl << 16 | dtm; }
+
+    // Peças em qualquer ordem (cor 0 = brancas); usado também pelo gerador para capturas e promoções
+    int probe(int n, int[] colors, int[] types, int[] squares, boolean whiteToMove, Scratch scratch) {
+        int sig = signature(n, colors, types);
+        if (isTrivialDraw(sig)) return result(DRAW, 0);
+        Table t = tables.get(sig);
+        if (t == null) return UNKNOWN;
+
+        // Material do lado mais fraco nas brancas: troca as cores e espelha as fileiras
+        int swap = sig == t.signature ? 0 : 1;
+        int[] sq = scratch.sq;
+        boolean[] used = scratch.used;
+        Arrays.fill(used, 0, n, false);
+        for (int slot = 0; slot < t.n; slot++) {
+            for (int j = 0; j < n; j++) {
+                if (!used[j] && (colors[j] ^ swap) == t.colors[slot] && types[j] == t.types[slot]) {
+                    used[j] = true;
+                    sq[slot] = swap == 0 ? squares[j] : squares[j] ^ 56;
+                    break;
+                }
+            }
+        }
+        return t.read(t.index(sq, whiteToMove ^ swap == 1));
+    }
+
+    void load(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        Table t = new Table(name.substring(0, name.length() - EXTENSION.length()));
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        channels.add(ch);
+        t.map(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), file);
+        tables.put(t.signature, t);
+        tables.put(swapColors(t.signature), t);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel ch : channels) ch.close();
+        channels.clear();
+        tables.clear();
+    }
+
+    // --- Material ---
+
+    // 2 bits por (cor, tipo) sem os reis: quantas peças de cada
+    static int signature(int n, int[] colors, int[] types) {
+        int sig = 0;
+        for (int i = 0; i < n; i++) {
+            if (types[i] != Piece.KING) sig += 1 << ((colors[i] * 5 + types[i]) * 2);
+        }
+        return sig;
+    }
+
+    static int swapColors(int sig) {
+        return (sig >>> 10) | (sig & 0x3FF) << 10;
+    }
+
+    // Rei contra rei, ou rei e uma peça menor contra rei
+    static boolean isTrivialDraw(int sig) {
+        for (int c = 0; c < 2; c++) {
+            if (sig == 0 || sig == 1 << ((c * 5 + Piece.KNIGHT) * 2) || sig == 1 << ((c * 5 + Piece.BISHOP) * 2)) return true;
+        }
+        return false;
+    }
+
+    /** Nome canônico do material (lado mais forte primeiro), ex.: "KRvKP". */
+    static String name(int sig) {
+        String white = side(sig, 0), black = side(sig, 1);
+        return stronger(black, white) ? black + "v" + white : white + "v" + black;
+    }
+
+    private static String side(int sig, int color) {
+        StringBuilder sb = new StringBuilder("K");
+        for (int t = Piece.QUEEN; t >= Piece.PAWN; t--) {
+            for (int k = (sig >>> ((color * 5 + t) * 2)) & 3; k > 0; k--) sb.append(LETTERS.charAt(t));
+        }
+        return sb.toString();
+    }
+
+    // Mais peças, ou peças mais valiosas na primeira diferença
+    private static boolean stronger(String a, String b) {
+        if (a.length() != b.length()) return a.length() > b.length();
+        for (int i = 1; i < a.length(); i++) {
+            int va = LETTERS.indexOf(a.charAt(i)), vb = LETTERS.indexOf(b.charAt(i));
+            if (va != vb) return va > vb;
+        }
+        return false;
+    }
+
+    static int file(int sq) { return sq & 7; }
+
+    static int rank(int sq) { return 7 - (sq >>> 3); }
+
+    // Reflexão na diagonal a1-h8 (troca coluna e fileira)
+    static int reflect(int sq) { return (7 - file(sq)) * 8 + rank(sq); }
+
+    /**
+     * Vetores de trabalho de probe(), reaproveitados entre consultas: cada thread que
+     * consulta tem o seu (na busca, o Game de cada worker; no gerador, cada Worker).
+     */
+    public static final class Scratch {
+        final int[] colors = new int[MAX_PIECES];
+        final int[] types = new int[MAX_PIECES];
+        final int[] squares = new int[MAX_PIECES];
+        final int[] sq = new int[MAX_PIECES];
+        final boolean[] used = new boolean[MAX_PIECES];
+    }
+
+    /** Um material: ordem das peças no índice, tamanho e (depois de gerado) o arquivo mapeado. */
+    static final class Table {
+
+        final String name;
+        final int n;
+        final int[] colors;
+        final int[] types;
+        final boolean pawns;
+        final int kingSlots;
+        final int size;
+        final int signature;
+
+        private MappedByteBuffer data;
+        private int dtmBits;
+        private int dtmOffset;
+
+        // Ordem dos slots: rei branco, rei preto, demais brancas, demais pretas (como no nome)
+        Table(String name) {
+            int v = name.indexOf('v');
+            if (!name.startsWith("K") || v < 1 || name.charAt(v + 1) != 'K') {
+                throw new IllegalArgumentException("Material inválido: " + name);
+            }
+            this.name = name;
+            this.n = name.length() - 1;
+            this.colors = new int[n];
+            this.types = new int[n];
+            types[0] = types[1] = Piece.KING;
+            colors[1] = 1;
+            int slot = 2;
+            boolean anyPawn = false;
+            for (int i = 1; i < name.length(); i++) {
+                if (i == v || i == v + 1) continue;
+                int t = LETTERS.indexOf(name.charAt(i));
+                if (t < 0 || t == Piece.KING) throw new IllegalArgumentException("Material inválido: " + name);
+                colors[slot] = i < v ? 0 : 1;
+                types[slot++] = t;
+                anyPawn |= t == Piece.PAWN;
+            }
+            this.pawns = anyPawn;
+            this.kingSlots = pawns ? 32 : 10;
+            this.size = 2 * kingSlots << (6 * (n - 1));
+            this.signature = Tablebases.signature(n, colors, types);
+        }
+
+        /**
+         * Índice da posição (casas na ordem dos slots). Posições simétricas têm o mesmo
+         * índice: com o rei branco na diagonal a1-h8, decide a primeira peça fora dela.
+         */
+        int index(int[] sq, boolean whiteToMove) {
+            int k = sq[0];
+            int flip = file(k) > 3 ? 7 : 0;
+            if (!pawns && rank(k) > 3) flip ^= 56;
+            k ^= flip;
+            boolean diagonal = !pawns && rank(k) > file(k);
+            for (int i = 1; !pawns && rank(k) == file(k) && i < n; i++) {
+                int s = sq[i] ^ flip;
+                if (rank(s) != file(s)) {
+                    diagonal = rank(s) > file(s);
+                    break;
+                }
+            }
+            int idx = (whiteToMove ? 0 : kingSlots) + (pawns ? (k >>> 3) * 4 + file(k) : TRIANGLE[diagonal ? reflect(k) : k]);
+            for (int i = 1; i < n; i++) {
+                int s = sq[i] ^ flip;
+                idx = idx << 6 | (diagonal ? reflect(s) : s);
+            }
+            return idx;
+        }
+
+        /** Casas da posição do índice (em sq, na ordem dos slots); retorna se as brancas jogam. */
+        boolean decode(int idx, int[] sq) {
+            for (int i = n - 1; i >= 1; i--) {
+                sq[i] = idx & 63;
+                idx >>>= 6;
+            }
+            int slot = idx % kingSlots;
+            sq[0] = pawns ? (slot >>> 2) * 8 + (slot & 3) : TRIANGLE_SQUARES[slot];
+            return idx < kingSlots;
+        }
+
+        void map(MappedByteBuffer data, Path file) throws IOException {
+            if (data.capacity() < HEADER || data.getInt(0) != MAGIC || data.get(4) != n) {
+                throw new IOException("Tablebase inválida: " + file);
+            }
+            int bits = data.get(5);
+            int offset = HEADER + (size + 3) / 4;
+            if (bits < 1 || bits > 16 || data.capacity() < offset + ((long) size * bits + 7) / 8 + 8) {
+                throw new IOException("Tablebase inválida: " + file);
+            }
+            this.dtmBits = bits;
+            this.dtmOffset = offset;
+            this.data = data;
+        }
+
+        int read(int idx) {
+            int wdl = (data.get(HEADER + (idx >>> 2)) >>> ((idx & 3) * 2)) & 3;
+            if (wdl == ILLEGAL) return UNKNOWN;
+            if (wdl == DRAW) return result(DRAW, 0);
+            long bit = (long) idx * dtmBits;
+            long word = data.getLong(dtmOffset + (int) (bit >>> 3));
+            int dtm = (int) (word >>> (64 - dtmBits - (bit & 7))) & ((1 << dtmBits) - 1);
+            return result(wdl, dtm);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tabela de transposição de tamanho fixo, compartilhada entre threads de busca.
+ *
+ * Cada entrada ocupa dois longs em arrays primitivos pré-alocados: a chave de
+ * Zobrist XOR os dados e os dados (lance, score, profundidade, tipo de limite e
+ * idade). A leitura só aceita a entrada se chave ^ dados reproduzir a chave
+ * consultada ("lockless hashing"): uma escrita concorrente que deixe o par
+ * inconsistente é descartada como miss, sem travas.
+ *
+ * As entradas são agrupadas em baldes de 4; a substituição prefere a entrada da
+ * mesma posição e, não havendo, a de menor profundidade descontada a idade
+ * (entradas de buscas anteriores são substituídas primeiro).
+ *
+ * As estatísticas (acertos, colisões) ficam desligadas por padrão: contadores
+ * escritos por todas as threads a cada consulta disputariam a mesma linha de
+ * cache no caminho quente. Ligue com setStatsEnabled para diagnóstico.
+ */
+public final class TranspositionTable {
+
+    /** Tipos de limite do score armazenado. */
+    public static final int BOUND_LOWER = 1; // score >= valor real (corte beta)
+    public static final int BOUND_UPPER = 2; // score <= valor real (falhou baixo)
+    public static final int BOUND_EXACT = 3;
+
+    private static final int BUCKET = 4;
+    private static final int ENTRY_BYTES = 16;
+
+    // Layout dos dados: lance 0..23, score 24..39 (com sinal), profundidade 40..47,
+    // limite 48..49, idade 50..55. Entradas gravadas têm limite != 0, logo dados != 0.
+    private static final int SCORE_SHIFT = 24;
+    private static final int DEPTH_SHIFT = 40;
+    private static final int BOUND_SHIFT = 48;
+    private static final int AGE_SHIFT = 50;
+    private static final int AGE_MASK = 63;
+
+    private long[] keys;
+    private long[] data;
+    private int mask;
+    private volatile int age;
+
+    // Lido a cada consulta: campo simples, definido antes de as threads começarem a busca
+    private boolean statsEnabled;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    /** Realoca a tabela com o tamanho em MB (arredondado para potência de 2 entradas). */
+    public void resize(int megabytes) {
+        long entries = Math.max(BUCKET, (long) Math.max(1, megabytes) * 1024 * 1024 / ENTRY_BYTES);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+        resetStats();
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        age = 0;
+        resetStats();
+    }
+
+    /** Marca o início de uma nova busca (envelhece as entradas existentes). */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /** Liga/desliga a contagem de consultas, acertos e colisões (desligada por padrão). */
+    public void setStatsEnabled(boolean enabled) {
+        this.statsEnabled = enabled;
+    }
+
+    // Idade atual (0..AGE_MASK), avançada por newSearch()
+    int age() { return age; }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Dados da entrada da posição, ou 0 se não houver (ver move/score/depth/bound). */
+    public long probe(long key) {
+        if (statsEnabled) probes.increment();
+        int base = (int) key & mask & -BUCKET;
+        for (int i = base; i < base + BUCKET; i++) {
+            long d = data[i];
+            if ((keys[i] ^ d) == key && d != 0) {
+                if (statsEnabled) hits.increment();
+                return d;
+            }
+        }
+        return 0L;
+    }
+
+    /** Grava (ou substitui) a entrada da posição. depth < 0 é gravado como 0. */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int base = (int) key & mask & -BUCKET;
+        int currentAge = age;
+        int victim = base;
+        int worst = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET; i++) {
+            long d = data[i];
+            if (d == 0 || (keys[i] ^ d) == key) {
+                // Mesma posição: preserva o melhor lance conhecido se o novo não tiver
+                if (d != 0 && move == 0) move = move(d);
+                victim = i;
+                worst = Integer.MIN_VALUE;
+                break;
+            }
+            int ageDiff = (currentAge - age(d)) & AGE_MASK;
+            int value = depth(d) - 8 * ageDiff;
+            if (value < worst) {
+                worst = value;
+                victim = i;
+            }
+        }
+        if (statsEnabled) {
+            stores.increment();
+            if (worst != Integer.MIN_VALUE) collisions.increment(); // expulsa outra posição
+        }
+
+        long d = (move & 0xFFFFFFL)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.min(Math.max(depth, 0), 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        keys[victim] = key ^ d;
+        data[victim] = d;
+    }
+
+    // --- Decodificação dos dados ---
+
+    public static int move(long d) { return (int) (d & 0xFFFFFF); }
+    public static int score(long d) { return (short) (d >>> SCORE_SHIFT); }
+    public static int depth(long d) { return (int) (d >>> DEPTH_SHIFT) & 0xFF; }
+    public static int bound(long d) { return (int) (d >>> BOUND_SHIFT) & 3; }
+    private static int age(long d) { return (int) (d >>> AGE_SHIFT) & AGE_MASK; }
+
+    // --- Estatísticas ---
+
+    public void resetStats() {
+        probes.reset();
+        hits.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    /** Fração das consultas que encontraram a posição. */
+    public double hitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+    /** Fração das gravações que expulsaram outra posição do balde. */
+    public double collisionRate() {
+        long s = stores.sum();
+        return s == 0 ? 0 : (double) collisions.sum() / s;
+    }
+
+    /** Ocupação em permil (amostra das primeiras 1000 entradas da busca atual), como no UCI. */
+    public int hashfull() {
+        int used = 0, n = Math.min(1000, data.length);
+        for (int i = 0; i < n; i++) {
+            long d = data[i];
+            if (d != 0 && age(d) == age) used++;
+        }
+        return used * 1000 / n;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TT %d entradas, consultas %d, acertos %.1f%%, colisões %.1f%%",
+                capacity(), probes.sum(), 100 * hitRate(), 100 * collisionRate());
+    }
+}
@@ -0,0 +1,231 @@
+package model.board;
+
+import java.util.List;
+
+/**
+ * Tabelas e operações de bitboard (máscaras de 64 bits, um bit por casa).
+ *
+ * Convenção de índice: casa = linha * 8 + coluna, com linha 0 = fileira 8
+ * (mesma orientação de Position). Assim a8 = bit 0 e h1 = bit 63.
+ * As tabelas são geradas uma única vez na carga da classe e são imutáveis,
+ * portanto compartilhadas por todas as threads sem sincronização.
+ *
+ * Ataques de torre e bispo usam "fancy magic bitboards": os bloqueadores
+ * relevantes da casa (occ & máscara) multiplicados por um número mágico e
+ * deslocados formam o índice direto na tabela de ataques daquela casa, ou seja,
+ * uma multiplicação, um deslocamento e uma leitura. Os números mágicos abaixo
+ * foram obtidos por busca aleatória (candidatos esparsos, xorshift64* de semente
+ * fixa); na carga da classe as tabelas são preenchidas a partir dos raios
+ * clássicos e cada número é conferido contra colisões destrutivas.
+ */
+public final class Bitboards {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    /** Casas atacadas por um cavalo/rei em cada casa. */
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+    public static final long[] KING_ATTACKS = new long[64];
+
+    /** PAWN_ATTACKS[cor][casa]: casas atacadas por um peão daquela cor. */
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Direções dos raios: 0..3 ortogonais, 4..7 diagonais, em pares opostos (d e d ^ 1).
+    private static final int[][] DIRS = {
+            {-1, 0}, {1, 0}, {0, -1}, {0, 1},
+            {-1, -1}, {1, 1}, {-1, 1}, {1, -1}
+    };
+
+    /** RAYS[direção][casa]: todas as casas do raio, sem a casa de origem. */
+    private static final long[][] RAYS = new long[8][64];
+
+    /** BETWEEN[a][b]: casas estritamente entre a e b quando alinhadas (senão 0). */
+    public static final long[][] BETWEEN = new long[64][64];
+
+    /** LINE[a][b]: linha/coluna/diagonal inteira que passa por a e b (senão 0). */
+    public static final long[][] LINE = new long[64][64];
+
+    // Magics: máscara de bloqueadores relevantes, número mágico, deslocamento e
+    // início do trecho da casa na tabela compartilhada de cada tipo de peça
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = {
+            0xA080028098400120L, 0x00C0001009402000L, 0x010010200041000AL, 0x1080040800801000L,
+            0x2080080002040080L, 0x0B00040012080D00L, 0x0200010084080200L, 0x020000844C010022L,
+            0x0800802040008000L, 0x8141004000208100L, 0x1003002000410011L, 0x0009001000A10900L,
+            0x0200808008000400L, 0x0031000804008300L, 0x2144000802041001L, 0x0081001068820100L,
+            0x0080004000402000L, 0x0010004000200040L, 0x0010410020030810L, 0x1810004040080400L,
+            0x0008008004008008L, 0x0000080140100420L, 0x1001010100020004L, 0x400012000455088CL,
+            0x0080004040002010L, 0x1000400080802000L, 0x0003044500142000L, 0x0540240900100100L,
+            0x400C001101000800L, 0x0000200801044010L, 0x0408020400081001L, 0x2000090200088044L,
+            0x8000804004800028L, 0x0002010022004080L, 0x8802001086002241L, 0x0880082501001000L,
+            0x0000040082800800L, 0xA800040080800200L, 0x40A0300144008208L, 0x40088000C2800500L,
+            0x0800204001918000L, 0x5100410082020020L, 0x0C00100020008080L, 0x0810100009010020L,
+            0x280C080101110004L, 0x9060040002008080L, 0x0800281001340002L, 0x4008009C00420005L,
+            0x0840250880104100L, 0x0040004080200080L, 0x00100483B0200080L, 0x8044084200102200L,
+            0x0380040080080080L, 0x001C040002008080L, 0x0288022108300400L, 0x0000008054010200L,
+            0x0003084110218001L, 0x048140010822B083L, 0x2000120A40200101L, 0x0021210410000901L,
+            0x000200310824A002L, 0x5001009A28040005L, 0x801800B01102080CL, 0x20400407102080C2L
+    };
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = {
+            0x1444200224082480L, 0x00020242041D0444L, 0x9010440080201000L, 0x080404108088C008L,
+            0x0088484002010002L, 0x0002080248020102L, 0x0004041222102000L, 0x1400240042082001L,
+            0x0401102001010A20L, 0x100010020200420EL, 0x0080344404004400L, 0x0180684489008000L,
+            0x0040840420941000L, 0x8880028A10412420L, 0x00CB010812300400L, 0x1080410900822000L,
+            0x8041102004148480L, 0x2804000850142042L, 0x00080421084C0080L, 0x0808000222004401L,
+            0x0044050580A00410L, 0x0041000A00822110L, 0x1002100242105400L, 0x0200800104014100L,
+            0x2504428110020800L, 0x805C143010100098L, 0x0002838350040180L, 0x0080404014010200L,
+            0xC011001081004000L, 0x0001010102100080L, 0x8008210004809880L, 0x8000404301140200L,
+            0x0208024020100409L, 0x0001101014629400L, 0x0102002400220802L, 0x1004202022080080L,
+            0x0040010010850040L, 0x0A100202008420A2L, 0x0028010040040221L, 0x0140840104008092L,
+            0x3001011013004050L, 0xC804240C24000200L, 0x00006A008A045000L, 0x0000444208002080L,
+            0x4100400292001301L, 0x090202404300C200L, 0x9104014849048200L, 0x40090242020A8640L,
+            0x0000510821100080L, 0x0001010090440600L, 0x010104320910214CL, 0x2042000210440420L,
+            0x0002000C2D041000L, 0x0100881004A82000L, 0x0248080818444200L, 0x20A0088101002000L,
+            0x4001004200A00830L, 0x2004030509100200L, 0x2010002420A41000L, 0x0202001100420206L,
+            0xC208022420042410L, 0x640000402408C080L, 0x1000200204012400L, 0x0040104401004310L
+    };
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        int[][] kJumps = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >>> 3, c = sq & 7;
+            for (int[] d : kJumps) KNIGHT_ATTACKS[sq] |= bit(r + d[0], c + d[1]);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if (dr != 0 || dc != 0) KING_ATTACKS[sq] |= bit(r + dr, c + dc);
+                }
+            }
+            PAWN_ATTACKS[WHITE][sq] = bit(r - 1, c - 1) | bit(r - 1, c + 1);
+            PAWN_ATTACKS[BLACK][sq] = bit(r + 1, c - 1) | bit(r + 1, c + 1);
+
+            for (int d = 0; d < 8; d++) {
+                int rr = r + DIRS[d][0], cc = c + DIRS[d][1];
+                while (rr >= 0 && rr < 8 && cc >= 0 && cc < 8) {
+                    RAYS[d][sq] |= 1L << (rr * 8 + cc);
+                    rr += DIRS[d][0];
+                    cc += DIRS[d][1];
+                }
+            }
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int d = 0; d < 8; d++) {
+                long ray = RAYS[d][a];
+                long full = ray | RAYS[d ^ 1][a] | (1L << a); // d ^ 1 = direção oposta
+                for (long m = ray; m != 0; m &= m - 1) {
+                    int b = Long.numberOfTrailingZeros(m);
+                    BETWEEN[a][b] = ray & ~RAYS[d][b] & ~(1L << b);
+                    LINE[a][b] = full;
+                }
+            }
+        }
+    }
+
+    static {
+        ROOK_TABLE = initMagics(0, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_OFFSET);
+        BISHOP_TABLE = initMagics(4, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_OFFSET);
+    }
+
+    private Bitboards() { /* utilitário */ }
+
+    /**
+     * Calcula máscaras e deslocamentos das 4 direções a partir de firstDir
+     * (0 = torre, 4 = bispo) e preenche a tabela de ataques de todas as casas.
+     */
+    private static long[] initMagics(int firstDir, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int total = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = 0L;
+            for (int d = firstDir; d < firstDir + 4; d++) {
+                long ray = RAYS[d][sq];
+                if (ray == 0) continue;
+                // A última casa do raio (borda) nunca bloqueia nada além dela
+                int edge = isPositive(d) ? 63 - Long.numberOfLeadingZeros(ray) : Long.numberOfTrailingZeros(ray);
+                mask |= ray & ~(1L << edge);
+            }
+            masks[sq] = mask;
+            shifts[sq] = 64 - Long.bitCount(mask);
+            offsets[sq] = total;
+            total += 1 << Long.bitCount(mask);
+        }
+
+        long[] table = new long[total];
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = masks[sq];
+            long occ = 0L;
+            do { // percorre todos os subconjuntos da máscara ("carry rippler")
+                long attacks = slidingAttacks(firstDir, sq, occ);
+                int idx = offsets[sq] + (int) ((occ * magics[sq]) >>> shifts[sq]);
+                if (table[idx] != 0 && table[idx] != attacks) {
+                    throw new IllegalStateException("Número mágico inválido na casa " + sq);
+                }
+                table[idx] = attacks;
+                occ = (occ - mask) & mask;
+            } while (occ != 0);
+        }
+        return table;
+    }
+
+    // Ataques pelos raios clássicos (referência para montar as tabelas mágicas)
+    private static long slidingAttacks(int firstDir, int sq, long occ) {
+        return ray(firstDir, sq, occ) | ray(firstDir + 1, sq, occ)
+                | ray(firstDir + 2, sq, occ) | ray(firstDir + 3, sq, occ);
+    }
+
+    /** Bit da casa (linha, coluna) ou 0 se estiver fora do tabuleiro. */
+    private static long bit(int r, int c) {
+        return (r >= 0 && r < 8 && c >= 0 && c < 8) ? 1L << (r * 8 + c) : 0L;
+    }
+
+    /** Casas atacadas por uma torre em sq, considerando os bloqueios em occ. */
+    public static long rookAttacks(int sq, long occ) {
+        return ROOK_TABLE[ROOK_OFFSET[sq] + (int) (((occ & ROOK_MASK[sq]) * ROOK_MAGIC[sq]) >>> ROOK_SHIFT[sq])];
+    }
+
+    /** Casas atacadas por um bispo em sq, considerando os bloqueios em occ. */
+    public static long bishopAttacks(int sq, long occ) {
+        return BISHOP_TABLE[BISHOP_OFFSET[sq] + (int) (((occ & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq]) >>> BISHOP_SHIFT[sq])];
+    }
+
+    public static long queenAttacks(int sq, long occ) {
+        return rookAttacks(sq, occ) | bishopAttacks(sq, occ);
+    }
+
+    /**
+     * Raio até (e incluindo) o primeiro bloqueador. Direções com passo de índice
+     * positivo (baixo, direita, sudoeste, sudeste) usam o bit menos significativo,
+     * as demais o mais significativo.
+     */
+    private static long ray(int dir, int sq, long occ) {
+        long attacks = RAYS[dir][sq];
+        long blockers = attacks & occ;
+        if (blockers != 0) {
+            int first = isPositive(dir)
+                    ? Long.numberOfTrailingZeros(blockers)
+                    : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= RAYS[dir][first];
+        }
+        return attacks;
+    }
+
+    private static boolean isPositive(int dir) {
+        return DIRS[dir][0] * 8 + DIRS[dir][1] > 0;
+    }
+
+    /** Converte cada bit da máscara numa Position e adiciona à lista. */
+    public static void addSquares(List<Position> out, long mask) {
+        while (mask != 0) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            out.add(Position.of(sq));
+            mask &= mask - 1;
+        }
+    }
+}
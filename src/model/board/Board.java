@@ -2,12 +2,40 @@
 package model.board;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import model.pieces.Piece;
 
 public class Board { //CLASSE CONCRETA - a matriz do tabuleiro e a posição de todas as peças.
 
-    private final Piece[][] grid = new Piece[8][8];
+    // Núcleo em bitboards: um bit por casa (ver Bitboards para a convenção de índice).
+    // bitboards[cor * 6 + tipo] guarda as casas de cada tipo de peça por cor;
+    // squares[] mantém os objetos Piece para a API orientada a objetos (GUI/Game).
+    private final Piece[] squares = new Piece[64];
+    private final long[] bitboards = new long[12];
+    private final long[] occupancy = new long[2];
+    private long occupied;
+
+    // Chave de Zobrist da disposição das peças (lado a jogar, roque e en passant ficam no Game)
+    private long zobristKey;
+
+    // Avaliação incremental (ver PieceSquareTables): material + peça-casa de meio-jogo e
+    // de final do ponto de vista das brancas, e a fase (material de peças restante)
+    private int mgScore;
+    private int egScore;
+    private int phase;
+
+    // Rei e lista compacta de peças por cor, mantidos em set/remove/clear/copy.
+    // pieceIndex[sq] é a posição da peça de sq na lista da sua cor (remoção O(1)).
+    private final int[] kingSquares = {-1, -1};
+    private final Piece[][] pieceLists = new Piece[2][64];
+    private final int[][] pieceSquares = new int[2][64];
+    private final int[] pieceCounts = new int[2];
+    private final int[] pieceIndex = new int[64];
+
+    // Mapas de ataque por cor, calculados sob demanda; qualquer alteração invalida os dois
+    private final long[] attackMaps = new long[2];
+    private int attackMapValid;
 
     /** Verifica se a posição está dentro do tabuleiro (0..7). */
     public boolean isInside(Position p) {
@@ -16,7 +44,12 @@ public class Board { //CLASSE CONCRETA - a matriz do tabuleiro e a posição de
 
     /** Retorna a peça na posição ou null se vazio/fora. */
     public Piece get(Position p) {
-        return isInside(p) ? grid[p.getRow()][p.getColumn()] : null;
+        return isInside(p) ? squares[p.getIndex()] : null;
+    }
+
+    /** Retorna a peça na casa de índice 0..63 (ou null). */
+    public Piece get(int sq) {
+        return squares[sq];
     }
 
     /**
@@ -25,8 +58,12 @@ public class Board { //CLASSE CONCRETA - a matriz do tabuleiro e a posição de
      */
     public void set(Position p, Piece piece) {
         if (!isInside(p)) return;
-        grid[p.getRow()][p.getColumn()] = piece;
+        int sq = p.getIndex();
+        Piece old = squares[sq];
+        if (old != null) toggle(old, sq);
+        squares[sq] = piece;
         if (piece != null) {
+            toggle(piece, sq);
             // Mantém referência de posição da peça sincronizada
             piece.setPosition(p);
         }
@@ -35,11 +72,58 @@ public class Board { //CLASSE CONCRETA - a matriz do tabuleiro e a posição de
     /** Remove e retorna a peça da posição (ou null). */
     public Piece remove(Position p) {
         if (!isInside(p)) return null;
-        Piece old = grid[p.getRow()][p.getColumn()];
-        grid[p.getRow()][p.getColumn()] = null;
+        int sq = p.getIndex();
+        Piece old = squares[sq];
+        if (old != null) {
+            toggle(old, sq);
+            squares[sq] = null;
+        }
         return old;
     }
 
+    /** Liga/desliga o bit da casa nas máscaras da peça e de ocupação. */
+    private void toggle(Piece piece, int sq) {
+        long b = 1L << sq;
+        int color = piece.isWhite() ? Bitboards.WHITE : Bitboards.BLACK;
+        int index = color * 6 + piece.getType();
+        bitboards[index] ^= b;
+        occupancy[color] ^= b;
+        occupied ^= b;
+        zobristKey ^= Zobrist.PIECES[index][sq];
+        attackMapValid = 0;
+
+        boolean added = (bitboards[index] & b) != 0; // bit ligado = peça entrou
+        if (added) addToList(color, piece, sq);
+        else removeFromList(color, sq);
+        if (piece.getType() == Piece.KING) {
+            if (added) kingSquares[color] = sq;
+            else if (kingSquares[color] == sq) kingSquares[color] = -1;
+        }
+
+        int sign = added ? 1 : -1;
+        mgScore += sign * PieceSquareTables.MG[index][sq];
+        egScore += sign * PieceSquareTables.EG[index][sq];
+        phase += sign * PieceSquareTables.PHASE[piece.getType()];
+    }
+
+    private void addToList(int color, Piece piece, int sq) {
+        int i = pieceCounts[color]++;
+        pieceLists[color][i] = piece;
+        pieceSquares[color][i] = sq;
+        pieceIndex[sq] = i;
+    }
+
+    // Move a última peça da lista para o lugar da removida
+    private void removeFromList(int color, int sq) {
+        int i = pieceIndex[sq];
+        int last = --pieceCounts[color];
+        int lastSq = pieceSquares[color][last];
+        pieceLists[color][i] = pieceLists[color][last];
+        pieceSquares[color][i] = lastSq;
+        pieceIndex[lastSq] = i;
+        pieceLists[color][last] = null;
+    }
+
     /** Retorna true se a posição estiver vazia. */
     public boolean isEmpty(Position p) {
         return get(p) == null;
@@ -52,25 +136,150 @@ public class Board { //CLASSE CONCRETA - a matriz do tabuleiro e a posição de
 
     /** Limpa completamente o tabuleiro. */
     public void clear() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                grid[r][c] = null;
-            }
-        }
+        Arrays.fill(squares, null);
+        Arrays.fill(bitboards, 0L);
+        occupancy[0] = occupancy[1] = 0L;
+        occupied = 0L;
+        zobristKey = 0L;
+        mgScore = egScore = phase = 0;
+        attackMapValid = 0;
+        kingSquares[0] = kingSquares[1] = -1;
+        for (Piece[] list : pieceLists) Arrays.fill(list, null);
+        pieceCounts[0] = pieceCounts[1] = 0;
     }
 
-    /** Lista todas as peças de uma cor. */
+    /** Lista todas as peças de uma cor (cópia da lista mantida pelo Board). */
     public List<Piece> pieces(boolean white) {
-        List<Piece> out = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece pc = grid[r][c];
-                if (pc != null && pc.isWhite() == white) out.add(pc);
-            }
-        }
+        int color = white ? Bitboards.WHITE : Bitboards.BLACK;
+        List<Piece> out = new ArrayList<>(pieceCounts[color]);
+        for (int i = 0; i < pieceCounts[color]; i++) out.add(pieceLists[color][i]);
         return out;
     }
 
+    /**
+     * Número de peças vivas da cor. Junto com pieceAt/pieceSquare permite percorrer
+     * só as peças existentes sem alocar. A ordem muda quando peças saem do tabuleiro:
+     * quem altera o Board durante o percurso deve usar uma cópia de occupancy().
+     */
+    public int pieceCount(boolean white) {
+        return pieceCounts[white ? Bitboards.WHITE : Bitboards.BLACK];
+    }
+
+    /** i-ésima peça viva da cor (0 <= i < pieceCount). */
+    public Piece pieceAt(boolean white, int i) {
+        return pieceLists[white ? Bitboards.WHITE : Bitboards.BLACK][i];
+    }
+
+    /** Casa (0..63) da i-ésima peça viva da cor. */
+    public int pieceSquare(boolean white, int i) {
+        return pieceSquares[white ? Bitboards.WHITE : Bitboards.BLACK][i];
+    }
+
+    // --- Máscaras ---
+
+    /** Casas ocupadas por peças do tipo (Piece.PAWN..Piece.KING) e cor indicados. */
+    public long bitboard(boolean white, int type) {
+        return bitboards[(white ? Bitboards.WHITE : Bitboards.BLACK) * 6 + type];
+    }
+
+    /** Casas ocupadas por peças de uma cor. */
+    public long occupancy(boolean white) {
+        return occupancy[white ? Bitboards.WHITE : Bitboards.BLACK];
+    }
+
+    /** Casas ocupadas por qualquer peça. */
+    public long occupied() {
+        return occupied;
+    }
+
+    /** Chave de Zobrist da disposição das peças (mantida incrementalmente em set/remove). */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /** Material + peça-casa de meio-jogo, do ponto de vista das brancas. */
+    public int mgScore() {
+        return mgScore;
+    }
+
+    /** Material + peça-casa de final, do ponto de vista das brancas. */
+    public int egScore() {
+        return egScore;
+    }
+
+    /** Fase do jogo: 0 (só reis e peões) .. PieceSquareTables.MAX_PHASE (material inicial). */
+    public int phase() {
+        return phase;
+    }
+
+    /**
+     * Retorna true se a casa sq for atacada por alguma peça da cor byWhite.
+     * Consulta O(1) ao mapa de ataques em cache (ver attackMap).
+     */
+    public boolean isSquareAttacked(int sq, boolean byWhite) {
+        return (attackMap(byWhite) & (1L << sq)) != 0;
+    }
+
+    /**
+     * Todas as casas atacadas pela cor byWhite, calculadas uma vez por posição e
+     * guardadas até a próxima alteração do tabuleiro (set/remove/clear).
+     *
+     * O rei adversário é tratado como transparente para as peças deslizantes, então
+     * as casas "atrás" dele na linha de um xeque também contam como atacadas: é o que
+     * o gerador precisa para as fugas do rei, e não muda a resposta para a casa do
+     * rei nem para qualquer casa quando ele não está em xeque.
+     */
+    public long attackMap(boolean byWhite) {
+        int color = byWhite ? Bitboards.WHITE : Bitboards.BLACK;
+        if ((attackMapValid & (1 << color)) == 0) {
+            attackMaps[color] = computeAttackMap(color);
+            attackMapValid |= 1 << color;
+        }
+        return attackMaps[color];
+    }
+
+    private long computeAttackMap(int color) {
+        int c = color * 6;
+        long occ = occupied & ~bitboards[(color ^ 1) * 6 + Piece.KING];
+        long a = 0L;
+        for (long m = bitboards[c + Piece.PAWN]; m != 0; m &= m - 1) {
+            a |= Bitboards.PAWN_ATTACKS[color][Long.numberOfTrailingZeros(m)];
+        }
+        for (long m = bitboards[c + Piece.KNIGHT]; m != 0; m &= m - 1) {
+            a |= Bitboards.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(m)];
+        }
+        long queens = bitboards[c + Piece.QUEEN];
+        for (long m = bitboards[c + Piece.BISHOP] | queens; m != 0; m &= m - 1) {
+            a |= Bitboards.bishopAttacks(Long.numberOfTrailingZeros(m), occ);
+        }
+        for (long m = bitboards[c + Piece.ROOK] | queens; m != 0; m &= m - 1) {
+            a |= Bitboards.rookAttacks(Long.numberOfTrailingZeros(m), occ);
+        }
+        long king = bitboards[c + Piece.KING];
+        if (king != 0) a |= Bitboards.KING_ATTACKS[Long.numberOfTrailingZeros(king)];
+        return a;
+    }
+
+    /**
+     * Máscara das peças da cor byWhite que atacam sq, usando a ocupação occ
+     * (permite consultar ataques "através" de uma peça removida, ex.: o próprio rei).
+     */
+    public long attackersTo(int sq, boolean byWhite, long occ) {
+        int c = byWhite ? 0 : 6;
+        long pawnsFrom = Bitboards.PAWN_ATTACKS[byWhite ? Bitboards.BLACK : Bitboards.WHITE][sq];
+        long queens = bitboards[c + Piece.QUEEN];
+        return (pawnsFrom & bitboards[c + Piece.PAWN])
+                | (Bitboards.KNIGHT_ATTACKS[sq] & bitboards[c + Piece.KNIGHT])
+                | (Bitboards.KING_ATTACKS[sq] & bitboards[c + Piece.KING])
+                | (Bitboards.rookAttacks(sq, occ) & (bitboards[c + Piece.ROOK] | queens))
+                | (Bitboards.bishopAttacks(sq, occ) & (bitboards[c + Piece.BISHOP] | queens));
+    }
+
+    /** Índice da casa do rei da cor indicada, ou -1 se não houver rei. */
+    public int kingSquare(boolean white) {
+        return kingSquares[white ? Bitboards.WHITE : Bitboards.BLACK];
+    }
+
     /** Alias conveniente (evita divergência de nomes em outras classes). */
     public List<Piece> getPieces(boolean white) {
         return pieces(white);
@@ -83,16 +292,30 @@ public class Board { //CLASSE CONCRETA - a matriz do tabuleiro e a posição de
      */
     public Board copy() {
         Board b = new Board();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p != null) {
-                    Piece cp = p.copyFor(b);                 // nova peça ligada ao Board "b"
-                    b.grid[r][c] = cp;                       // atribui diretamente (evita set() duplicado)
-                    cp.setPosition(new Position(r, c));      // sincroniza a posição do clone
-                }
+        // Percorre só as peças vivas; a lista do clone segue a mesma ordem
+        for (int color = 0; color < 2; color++) {
+            int n = pieceCounts[color];
+            for (int i = 0; i < n; i++) {
+                int sq = pieceSquares[color][i];
+                Piece cp = pieceLists[color][i].copyFor(b);      // nova peça ligada ao Board "b"
+                b.squares[sq] = cp;                              // atribui diretamente (evita set() duplicado)
+                cp.setPosition(Position.of(sq));                 // sincroniza a posição do clone
+                b.pieceLists[color][i] = cp;
+                b.pieceSquares[color][i] = sq;
             }
+            b.pieceCounts[color] = n;
         }
+        System.arraycopy(bitboards, 0, b.bitboards, 0, bitboards.length);
+        b.occupancy[0] = occupancy[0];
+        b.occupancy[1] = occupancy[1];
+        b.occupied = occupied;
+        b.zobristKey = zobristKey;
+        b.mgScore = mgScore;
+        b.egScore = egScore;
+        b.phase = phase;
+        b.kingSquares[0] = kingSquares[0];
+        b.kingSquares[1] = kingSquares[1];
+        System.arraycopy(pieceIndex, 0, b.pieceIndex, 0, 64);
         return b;
     }
 }
@@ -0,0 +1,37 @@
+package model.board;
+
+/**
+ * Lista de lances codificados (PackedMove) sobre um int[] pré-alocado.
+ * A busca mantém uma MoveList por ply e a reaproveita com clear(),
+ * de modo que a geração completa de lances não aloca.
+ */
+public final class MoveList {
+
+    /** Maior número de lances legais conhecido numa posição é 218. */
+    public static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void clear() { size = 0; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int get(int i) { return moves[i]; }
+    public void set(int i, int move) { moves[i] = move; }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /** Troca duas entradas (usado na ordenação de lances). */
+    public void swap(int i, int j) {
+        int t = moves[i];
+        moves[i] = moves[j];
+        moves[j] = t;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) if (moves[i] == move) return true;
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package model.board;
+
+import model.pieces.Piece;
+
+/**
+ * Codificação compacta de um lance num int (sem alocação), usada pela geração
+ * de lances e pela busca. Move continua sendo a visão decodificada para a GUI.
+ *
+ * Layout dos bits:
+ *   0..5   casa de origem (0..63)
+ *   6..11  casa de destino (0..63)
+ *   12..14 tipo da peça que move (Piece.PAWN..Piece.KING)
+ *   15..17 tipo capturado + 1 (0 = sem captura)
+ *   18..20 tipo da promoção (0 = sem promoção)
+ *   21     en passant
+ *   22     roque
+ *   23     avanço duplo de peão
+ * O valor 0 (NONE) nunca é um lance legal e representa "nenhum lance".
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int FLAG_EN_PASSANT = 1 << 21;
+    public static final int FLAG_CASTLE = 1 << 22;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 23;
+
+    private PackedMove() { /* utilitário */ }
+
+    /**
+     * @param captured tipo capturado ou -1
+     * @param promotion tipo da promoção ou 0
+     */
+    public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+        return from | (to << 6) | (piece << 12) | ((captured + 1) << 15) | (promotion << 18) | flags;
+    }
+
+    public static int from(int m) { return m & 63; }
+    public static int to(int m) { return (m >>> 6) & 63; }
+    public static int piece(int m) { return (m >>> 12) & 7; }
+
+    /** Tipo capturado, ou -1 se não houver captura. */
+    public static int captured(int m) { return ((m >>> 15) & 7) - 1; }
+
+    /** Tipo da promoção, ou 0 se não houver promoção. */
+    public static int promotion(int m) { return (m >>> 18) & 7; }
+
+    public static boolean isCapture(int m) { return (m & (7 << 15)) != 0; }
+    public static boolean isPromotion(int m) { return (m & (7 << 18)) != 0; }
+    public static boolean isEnPassant(int m) { return (m & FLAG_EN_PASSANT) != 0; }
+    public static boolean isCastle(int m) { return (m & FLAG_CASTLE) != 0; }
+    public static boolean isDoublePush(int m) { return (m & FLAG_DOUBLE_PUSH) != 0; }
+
+    /** Letra da promoção ('Q','R','B','N') ou null. */
+    public static Character promotionChar(int m) {
+        switch (promotion(m)) {
+            case Piece.QUEEN: return 'Q';
+            case Piece.ROOK: return 'R';
+            case Piece.BISHOP: return 'B';
+            case Piece.KNIGHT: return 'N';
+            default: return null;
+        }
+    }
+
+    /** Tipo da peça para a letra de promoção (default: dama). */
+    public static int promotionType(Character c) {
+        if (c == null) return Piece.QUEEN;
+        switch (Character.toUpperCase(c)) {
+            case 'R': return Piece.ROOK;
+            case 'B': return Piece.BISHOP;
+            case 'N': return Piece.KNIGHT;
+            default: return Piece.QUEEN;
+        }
+    }
+
+    /** Notação de coordenadas (ex.: e2e4, e7e8q). */
+    public static String toString(int m) {
+        if (m == NONE) return "0000";
+        String s = Position.of(from(m)).toString() + Position.of(to(m));
+        Character promo = promotionChar(m);
+        return promo == null ? s : s + Character.toLowerCase(promo);
+    }
+}
@@ -1,21 +1,42 @@
 // ========================= src/model/board/Position.java =========================
 package model.board;
 
-import java.util.Objects;
-
 public final class Position { //CLASSE CONCRETA - representa um dado: as coordenadas de uma casa.
 
     private final int row;    // 0..7 (0 = topo / linha 8, 7 = fundo / linha 1)
     private final int column; // 0..7 (0 = 'a', 7 = 'h')
 
-    public Position(int row, int column) {
+    // Tabela canônica (flyweight): uma única instância por casa, índice = linha * 8 + coluna
+    private static final Position[] SQUARES = new Position[64];
+    static {
+        for (int i = 0; i < 64; i++) SQUARES[i] = new Position(i >>> 3, i & 7);
+    }
+
+    private Position(int row, int column) {
         this.row = row;
         this.column = column;
     }
 
+    /**
+     * Instância canônica da casa (linha, coluna); não aloca para casas do tabuleiro.
+     * Coordenadas fora do tabuleiro geram uma Position avulsa com isValid() == false.
+     */
+    public static Position of(int row, int column) {
+        if (row >= 0 && row < 8 && column >= 0 && column < 8) return SQUARES[row * 8 + column];
+        return new Position(row, column);
+    }
+
+    /** Instância canônica da casa de índice 0..63 (a8 = 0, h1 = 63). */
+    public static Position of(int index) {
+        return SQUARES[index];
+    }
+
     public int getRow() { return row; }
     public int getColumn() { return column; }
 
+    /** Índice da casa (linha * 8 + coluna), mesma convenção dos bitboards. */
+    public int getIndex() { return row * 8 + column; }
+
     /** Retorna true se a posição estiver dentro do tabuleiro 8x8. */
     public boolean isValid() {
         return row >= 0 && row < 8 && column >= 0 && column < 8;
@@ -23,7 +44,7 @@ public final class Position { //CLASSE CONCRETA - representa um dado: as coorden
 
     @Override
     public boolean equals(Object o) {
-        if (this == o) return true;
+        if (this == o) return true; // casas do tabuleiro são canônicas: identidade basta
         if (!(o instanceof Position)) return false;
         Position that = (Position) o;
         return row == that.row && column == that.column;
@@ -31,7 +52,7 @@ public final class Position { //CLASSE CONCRETA - representa um dado: as coorden
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        return row * 8 + column;
     }
 
     /** Notação algébrica padrão (ex: a1, e4, h8). */
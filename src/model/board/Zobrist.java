@@ -0,0 +1,61 @@
+package model.board;
+
+/**
+ * Chaves aleatórias de Zobrist para identificar posições com um long de 64 bits.
+ *
+ * A chave de uma posição é o XOR das chaves de cada peça em sua casa, do lado a
+ * jogar (pretas), dos direitos de roque e da coluna de en passant. Como XOR é a
+ * própria inversa, a chave é atualizada incrementalmente a cada peça colocada ou
+ * removida. A semente é fixa para que as chaves sejam estáveis entre execuções
+ * (necessário para arquivos persistidos, como livros de aberturas).
+ */
+public final class Zobrist {
+
+    /** Bits de direitos de roque. */
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    /** PIECES[cor * 6 + tipo][casa]. */
+    public static final long[][] PIECES = new long[12][64];
+    public static final long BLACK_TO_MOVE;
+    public static final long[] CASTLING = new long[16];
+    public static final long[] EN_PASSANT_FILE = new long[8];
+
+    /** Direitos que permanecem quando uma peça sai de / chega a cada casa. */
+    public static final int[] CASTLING_MASK = new int[64];
+
+    private static long seed = 0x2545F4914F6CDD1DL;
+
+    static {
+        for (long[] table : PIECES) {
+            for (int sq = 0; sq < 64; sq++) table[sq] = next();
+        }
+        BLACK_TO_MOVE = next();
+        // Combinações de direitos: XOR das chaves de cada direito individual
+        long[] single = {next(), next(), next(), next()};
+        for (int rights = 0; rights < 16; rights++) {
+            for (int b = 0; b < 4; b++) if ((rights & (1 << b)) != 0) CASTLING[rights] ^= single[b];
+        }
+        for (int f = 0; f < 8; f++) EN_PASSANT_FILE[f] = next();
+
+        java.util.Arrays.fill(CASTLING_MASK, 15);
+        CASTLING_MASK[60] = 15 & ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE); // e1
+        CASTLING_MASK[63] = 15 & ~WHITE_KING_SIDE;                      // h1
+        CASTLING_MASK[56] = 15 & ~WHITE_QUEEN_SIDE;                     // a1
+        CASTLING_MASK[4] = 15 & ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);  // e8
+        CASTLING_MASK[7] = 15 & ~BLACK_KING_SIDE;                       // h8
+        CASTLING_MASK[0] = 15 & ~BLACK_QUEEN_SIDE;                      // a8
+    }
+
+    private Zobrist() { /* utilitário */ }
+
+    /** xorshift64* com semente fixa. */
+    private static long next() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
@@ -3,6 +3,7 @@ package model.pieces; // Define o pacote onde a classe está localizada para fin
 
 import java.util.ArrayList;
 import java.util.List;
+import model.board.Bitboards;
 import model.board.Board;
 import model.board.Position;
 
@@ -13,38 +14,24 @@ public class King extends Piece { //Rei
     @Override
     public String getSymbol() { return "K"; }
 
+    @Override
+    public int getType() { return KING; }
+
     @Override
     public Piece copyFor(Board newBoard) {
         King k = new King(newBoard, isWhite);
         k.moved = this.moved;
         if (this.position != null) {
-            k.setPosition(new Position(this.position.getRow(), this.position.getColumn()));
+            k.setPosition(this.position);
         }
         return k;
     }
 
     @Override
-    public List<Position> getPossibleMoves() {
-        List<Position> moves = new ArrayList<>();
-        if (position == null || board == null) return moves;
-
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue;
-                int r = position.getRow() + dr;
-                int c = position.getColumn() + dc;
-                if (r < 0 || r > 7 || c < 0 || c > 7) continue;
-
-                Position to = new Position(r, c);
-                Piece occ = board.get(to);
-                if (occ == null || occ.isWhite() != this.isWhite) {
-                    moves.add(to);
-                }
-            }
-        }
-
+    public long getMoveMask() {
+        if (position == null || board == null) return 0L;
         // Roques são tratados no controller.Game (candidatos adicionados lá)
-        return moves;
+        return Bitboards.KING_ATTACKS[position.getIndex()] & ~board.occupancy(isWhite);
     }
 
     /**
@@ -56,15 +43,7 @@ public class King extends Piece { //Rei
         List<Position> attacks = new ArrayList<>();
         if (position == null) return attacks;
 
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue;
-                int r = position.getRow() + dr;
-                int c = position.getColumn() + dc;
-                if (r < 0 || r > 7 || c < 0 || c > 7) continue;
-                attacks.add(new Position(r, c));
-            }
-        }
+        Bitboards.addSquares(attacks, Bitboards.KING_ATTACKS[position.getIndex()]);
         return attacks; // Finaliza o método e devolve a lista de casas que o Rei ataca.
     }
 }
@@ -11,37 +11,22 @@ public class Knight extends Piece { //Cavalo - peça única que pode pular outra
     @Override
     public String getSymbol() { return "N"; }
 
+    @Override
+    public int getType() { return KNIGHT; }
+
     @Override
     public Piece copyFor(Board newBoard) {
         Knight clone = new Knight(newBoard, isWhite);
         clone.moved = this.moved;
         if (this.position != null) {
-            clone.setPosition(new Position(this.position.getRow(), this.position.getColumn()));
+            clone.setPosition(this.position);
         }
         return clone;
     }
 
     @Override
-    public List<Position> getPossibleMoves() {
-        List<Position> moves = new ArrayList<>();
-        if (position == null || board == null) return moves;
-
-        int[][] jumps = {
-            {-2,-1},{-2,1},{-1,-2},{-1,2},
-            { 1,-2},{ 1,2},{ 2,-1},{ 2,1}
-        };
-
-        for (int[] d : jumps) {
-            int r = position.getRow() + d[0];
-            int c = position.getColumn() + d[1];
-            if (r < 0 || r > 7 || c < 0 || c > 7) continue;
-
-            Position to = new Position(r, c);
-            Piece occ = board.get(to);
-            if (occ == null || occ.isWhite() != this.isWhite) {
-                moves.add(to);
-            }
-        }
-        return moves;
+    public long getMoveMask() {
+        if (position == null || board == null) return 0L;
+        return Bitboards.KNIGHT_ATTACKS[position.getIndex()] & ~board.occupancy(isWhite);
     }
 }
@@ -15,65 +15,52 @@ public class Pawn extends Piece { //peão
         return "P";
     }
 
+    @Override
+    public int getType() { return PAWN; }
+
     @Override
     public Piece copyFor(Board newBoard) {
         Pawn clone = new Pawn(newBoard, isWhite);
         clone.moved = this.moved;
         if (this.position != null) {
-            clone.setPosition(new Position(position.getRow(), position.getColumn()));
+            clone.setPosition(position);
         }
         return clone;
     }
 
     @Override
-    public List<Position> getPossibleMoves() {
-        List<Position> moves = new ArrayList<>();
-        int dir = isWhite ? -1 : 1;
+    public long getMoveMask() {
+        if (position == null) return 0L;
+        int sq = position.getIndex();
+        int step = isWhite ? -8 : 8;
+        long empty = ~board.occupied();
+        long moves = 0L;
 
         // Um passo à frente
-        Position f1 = new Position(position.getRow() + dir, position.getColumn());
-        if (f1.isValid() && board.get(f1) == null) {
-            moves.add(f1);
+        int f1 = sq + step;
+        if (f1 >= 0 && f1 < 64 && (empty & (1L << f1)) != 0) {
+            moves |= 1L << f1;
 
             // Dois passos à frente (se ainda não moveu)
-            Position f2 = new Position(position.getRow() + 2 * dir, position.getColumn());
-            if (!moved && f2.isValid() && board.get(f2) == null) {
-                moves.add(f2);
+            int f2 = f1 + step;
+            if (!moved && f2 >= 0 && f2 < 64 && (empty & (1L << f2)) != 0) {
+                moves |= 1L << f2;
             }
         }
 
         // Capturas diagonais
-        Position left = new Position(position.getRow() + dir, position.getColumn() - 1);
-        Position right = new Position(position.getRow() + dir, position.getColumn() + 1);
-
-        if (left.isValid()) {
-            Piece target = board.get(left);
-            if (target != null && target.isWhite() != isWhite) {
-                moves.add(left);
-            }
-        }
-        if (right.isValid()) {
-            Piece target = board.get(right);
-            if (target != null && target.isWhite() != isWhite) {
-                moves.add(right);
-            }
-        }
-
         // Obs: En passant tratado no Game
-        return moves;
+        return moves | (pawnAttackMask(sq) & board.occupancy(!isWhite));
     }
 
     @Override
     public List<Position> getAttacks() {
         List<Position> attacks = new ArrayList<>();
-        int dir = isWhite ? -1 : 1;
-
-        Position left = new Position(position.getRow() + dir, position.getColumn() - 1);
-        Position right = new Position(position.getRow() + dir, position.getColumn() + 1);
-
-        if (left.isValid()) attacks.add(left);
-        if (right.isValid()) attacks.add(right);
-
+        Bitboards.addSquares(attacks, pawnAttackMask(position.getIndex()));
         return attacks;
     }
+
+    private long pawnAttackMask(int sq) {
+        return Bitboards.PAWN_ATTACKS[isWhite ? Bitboards.WHITE : Bitboards.BLACK][sq];
+    }
 }
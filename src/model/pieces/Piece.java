@@ -3,11 +3,16 @@ package model.pieces;
 
 
 import java.util.*;
+import model.board.Bitboards;
 import model.board.Board;
 import model.board.Position;
 
 
 public abstract class Piece { //classe abstrata. Ela define de maneira generalista o que todas as peças vão fazer/ contrato que todas as peças devem seguir. define o contrato para todas as peças.
+// Tipos de peça (índices dos bitboards em Board)
+public static final int PAWN = 0, KNIGHT = 1, BISHOP = 2, ROOK = 3, QUEEN = 4, KING = 5;
+
+
 protected Position position;
 protected final boolean isWhite;
 protected final Board board;
@@ -26,27 +31,35 @@ public boolean hasMoved(){ return moved; }
 public void setMoved(boolean moved){ this.moved = moved; }
 
 
-// Pseudo-movimentos (não filtram xeque ao próprio rei)
-public abstract List<Position> getPossibleMoves();
+// Pseudo-movimentos (não filtram xeque ao próprio rei) como máscara de bits (ver Bitboards);
+// o gerador de lances consome a máscara diretamente, sem montar listas
+public abstract long getMoveMask();
+// Mesmos pseudo-movimentos como lista de casas (GUI e código orientado a objetos)
+public List<Position> getPossibleMoves(){
+List<Position> moves = new ArrayList<>();
+Bitboards.addSquares(moves, getMoveMask());
+return moves;
+}
 // Casas atacadas (para peão difere dos possíveis)
 public List<Position> getAttacks(){ return getPossibleMoves(); }
 
 
 public abstract String getSymbol(); // K,Q,R,B,N,P - toda peça deve ter um símbolo
+public abstract int getType(); // PAWN..KING - usado pelos bitboards do Board
 
 
 // Fábrica de cópia para outro board
 public abstract Piece copyFor(Board newBoard);
 
 
-protected boolean empty(int r, int c){ return new Position(r,c).isValid() && board.get(new Position(r,c))==null; }
+protected boolean empty(int r, int c){ return inside(r,c) && board.get(r*8+c)==null; }
 protected boolean enemy(int r, int c){
-Position p = new Position(r,c);
-if(!p.isValid()) return false; Piece q = board.get(p);
+if(!inside(r,c)) return false; Piece q = board.get(r*8+c);
 return q!=null && q.isWhite()!=this.isWhite;
 }
 protected void addIfFreeOrEnemy(List<Position> list, int r, int c){
-Position p = new Position(r,c); if(!p.isValid()) return;
-var q = board.get(p); if(q==null || q.isWhite()!=this.isWhite) list.add(p);
+if(!inside(r,c)) return;
+var q = board.get(r*8+c); if(q==null || q.isWhite()!=this.isWhite) list.add(Position.of(r,c));
 }
+private static boolean inside(int r, int c){ return r>=0 && r<8 && c>=0 && c<8; }
 }
\ No newline at end of file
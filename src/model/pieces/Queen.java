@@ -1,9 +1,7 @@
 package model.pieces; // Define o pacote onde a classe está localizada para fins de organização.
 
-import java.util.ArrayList;
-import java.util.List;
+import model.board.Bitboards;
 import model.board.Board;
-import model.board.Position;
 
 public class Queen extends Piece { //rainha
 
@@ -17,23 +15,13 @@ public class Queen extends Piece { //rainha
     }
 
     @Override
-    public List<Position> getPossibleMoves() {
-        List<Position> moves = new ArrayList<>();
-        if (position == null || board == null) return moves;
+    public int getType() { return QUEEN; }
 
-        // Torre (4 direções)
-        addRay(moves, -1,  0); // cima
-        addRay(moves,  1,  0); // baixo
-        addRay(moves,  0, -1); // esquerda
-        addRay(moves,  0,  1); // direita
-
-        // Bispo (4 diagonais)
-        addRay(moves, -1, -1); // noroeste
-        addRay(moves, -1,  1); // nordeste
-        addRay(moves,  1, -1); // sudoeste
-        addRay(moves,  1,  1); // sudeste
-
-        return moves;
+    @Override
+    public long getMoveMask() {
+        if (position == null || board == null) return 0L;
+        // Torre + bispo (8 direções) numa única consulta de máscara
+        return Bitboards.queenAttacks(position.getIndex(), board.occupied()) & ~board.occupancy(isWhite);
     }
 
     @Override
@@ -41,30 +29,8 @@ public class Queen extends Piece { //rainha
         Queen clone = new Queen(newBoard, this.isWhite);
         clone.moved = this.moved;
         if (this.position != null) {
-            clone.setPosition(new Position(this.position.getRow(), this.position.getColumn()));
+            clone.setPosition(this.position);
         }
         return clone;
     }
-
-    private void addRay(List<Position> out, int dRow, int dCol) {
-        int r = position.getRow() + dRow;
-        int c = position.getColumn() + dCol;
-
-        while (r >= 0 && r < 8 && c >= 0 && c < 8) {
-            Position to = new Position(r, c);
-            Piece occ = board.get(to);
-
-            if (occ == null) {
-                out.add(to);
-            } else {
-                if (occ.isWhite() != this.isWhite) {
-                    out.add(to); // captura a primeira peça adversária no raio
-                }
-                break; // bloqueia após encontrar qualquer peça
-            }
-
-            r += dRow;
-            c += dCol;
-        }
-    }
 }
@@ -0,0 +1,285 @@
+package selfplay;
+
+import controller.Fen;
+import controller.Game;
+import controller.PgnWriter;
+import engine.Search;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.board.MoveList;
+import model.board.PackedMove;
+
+/**
+ * Partidas do motor contra ele mesmo, sem interface gráfica, para avaliar mudanças
+ * no motor: o motor A (limites -depth/-nodes/-movetime) enfrenta o motor B (os
+ * mesmos limites, ou -depth2/-nodes2/-movetime2).
+ *
+ * As partidas correm em paralelo num pool fixo de threads, cada uma com o seu Game
+ * e uma Search (com tabela de transposição própria) por lado. Cada abertura é jogada
+ * duas vezes com as cores trocadas; as aberturas vêm de -openings (uma FEN por
+ * linha) e/ou de -random meios-lances aleatórios sorteados a partir da semente.
+ * PGN (-pgn) e resultados em CSV (-results) são gravados à medida que as partidas
+ * terminam. Ao final: partidas/s, nós/s médios e V/E/D do motor A com intervalo de
+ * confiança de 95% (pontuação e Elo).
+ *
+ * Uso:
+ *   java -cp bin selfplay.SelfPlay -games 200 -threads 4 -nodes 20000 -nodes2 40000 -pgn out.pgn
+ */
+public final class SelfPlay {
+
+    private int games = 100;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int randomPlies = 8;
+    private int maxPlies = 400;
+    private int hashMb = 8;
+    private long seed = 1;
+    private final SearchLimits limitsA = new SearchLimits().depth(6);
+    private SearchLimits limitsB;
+    private String pgnPath;
+    private String resultsPath;
+    private final List<String> openings = new ArrayList<>();
+
+    private PgnWriter pgn;
+    private BufferedWriter results;
+
+    // Placar do motor A e totais, guardados por this
+    private int wins, draws, losses, finished;
+    private long totalNodes, totalSearchMillis, totalPlies;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        SelfPlay sp = new SelfPlay();
+        try {
+            sp.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Opções: -games N -threads N -depth N -nodes N -movetime MS"
+                    + " [-depth2 N -nodes2 N -movetime2 MS] -random PLIES -openings ARQUIVO"
+                    + " -maxplies N -hash MB -seed N -pgn ARQUIVO -results ARQUIVO");
+            System.exit(2);
+        }
+        sp.run();
+    }
+
+    private void parseArgs(String[] args) throws IOException {
+        // NumberFormatException também é IllegalArgumentException: cai na mensagem de uso
+        int depth2 = -1;
+        long nodes2 = -1, moveTime2 = -1;
+        for (int i = 0; i < args.length; i++) {
+            String opt = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Falta o valor de " + opt);
+            String v = args[++i];
+            switch (opt) {
+                case "-games": games = Integer.parseInt(v); break;
+                case "-threads": threads = Math.max(1, Integer.parseInt(v)); break;
+                case "-depth": limitsA.depth(Integer.parseInt(v)); break;
+                case "-nodes": limitsA.nodes(Long.parseLong(v)); break;
+                case "-movetime": limitsA.moveTime(Long.parseLong(v)); break;
+                case "-depth2": depth2 = Integer.parseInt(v); break;
+                case "-nodes2": nodes2 = Long.parseLong(v); break;
+                case "-movetime2": moveTime2 = Long.parseLong(v); break;
+                case "-random": randomPlies = Math.max(0, Integer.parseInt(v)); break;
+                case "-maxplies": maxPlies = Integer.parseInt(v); break;
+                case "-hash": hashMb = Math.max(1, Integer.parseInt(v)); break;
+                case "-seed": seed = Long.parseLong(v); break;
+                case "-pgn": pgnPath = v; break;
+                case "-results": resultsPath = v; break;
+                case "-openings": loadOpenings(v); break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + opt);
+            }
+        }
+        // B parte dos limites de A e troca só o que foi dado nas opções "2"
+        limitsB = new SearchLimits()
+                .depth(depth2 >= 0 ? depth2 : limitsA.getDepth())
+                .nodes(nodes2 >= 0 ? nodes2 : limitsA.getNodes())
+                .moveTime(moveTime2 >= 0 ? moveTime2 : limitsA.getMoveTimeMillis());
+    }
+
+    private void loadOpenings(String path) throws IOException {
+        for (String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            Fen.parse(line); // valida já na carga
+            openings.add(line);
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.printf("%d partidas, %d threads | A: %s | B: %s%n", games, threads, limitsA, limitsB);
+        if (pgnPath != null) pgn = new PgnWriter(Paths.get(pgnPath));
+        if (resultsPath != null) {
+            results = Files.newBufferedWriter(Paths.get(resultsPath), StandardCharsets.UTF_8);
+            results.write("game,white,black,result,termination,plies,nodes,millis\n");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "selfplay");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> record(play(index), start)));
+            }
+            for (Future<?> f : futures) f.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            pool.shutdownNow();
+            if (pgn != null) pgn.close();
+            if (results != null) results.close();
+        }
+        report(System.nanoTime() - start, true);
+    }
+
+    // --- Uma partida ---
+
+    private static final class Outcome {
+        int index;
+        boolean aIsWhite;
+        String result;
+        String termination;
+        String fen;
+        Game game;
+        long nodes;
+        long searchMillis;
+    }
+
+    // Threads do pool: tabelas de transposição reaproveitadas entre partidas (limpas a cada uma)
+    private final ThreadLocal<TranspositionTable[]> tables = ThreadLocal.withInitial(
+            () -> new TranspositionTable[]{new TranspositionTable(hashMb), new TranspositionTable(hashMb)});
+
+    private Outcome play(int index) {
+        Outcome o = new Outcome();
+        o.index = index;
+        o.aIsWhite = (index & 1) == 0;
+
+        // Abertura: o par de partidas 2k/2k+1 usa a mesma, com as cores trocadas
+        int pair = index >>> 1;
+        o.fen = openings.isEmpty() ? null : openings.get(pair % openings.size());
+        Game game = o.fen == null ? new Game() : Fen.parse(o.fen);
+        Random random = new Random(seed * 1_000_003L + pair);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < randomPlies && !game.getStatus().isGameOver(); i++) {
+            moves.clear();
+            game.generateMoves(moves);
+            game.makeMove(game.toMove(moves.get(random.nextInt(moves.size()))));
+        }
+
+        TranspositionTable[] tt = tables.get();
+        tt[0].clear();
+        tt[1].clear();
+        Search searchA = new Search(game, tt[0]);
+        Search searchB = new Search(game, tt[1]);
+
+        while (!game.getStatus().isGameOver() && game.history().size() < maxPlies) {
+            boolean aToMove = game.isWhiteToMove() == o.aIsWhite;
+            Search.Result r = aToMove ? searchA.search(limitsA) : searchB.search(limitsB);
+            if (r.bestMove == PackedMove.NONE) break;
+            o.nodes += r.nodes;
+            o.searchMillis += r.timeMillis;
+            game.makeMove(game.toMove(r.bestMove));
+        }
+
+        o.game = game;
+        o.result = PgnWriter.resultOf(game);
+        if (o.result.equals("*")) {
+            o.result = "1/2-1/2"; // limite de meios-lances: empate por adjudicação
+            o.termination = "adjudication";
+        } else {
+            o.termination = game.getStatus().name().toLowerCase();
+        }
+        return o;
+    }
+
+    // --- Saída e placar ---
+
+    private synchronized void record(Outcome o, long start) {
+        String white = o.aIsWhite ? "A" : "B";
+        String black = o.aIsWhite ? "B" : "A";
+        int plies = o.game.history().size();
+        try {
+            if (pgn != null) {
+                Map<String, String> tags = new LinkedHashMap<>();
+                tags.put("Event", "SelfPlay");
+                tags.put("Round", String.valueOf(o.index + 1));
+                tags.put("White", white + " (" + (o.aIsWhite ? limitsA : limitsB) + ")");
+                tags.put("Black", black + " (" + (o.aIsWhite ? limitsB : limitsA) + ")");
+                if (o.fen != null) {
+                    tags.put("SetUp", "1");
+                    tags.put("FEN", o.fen);
+                }
+                tags.put("PlyCount", String.valueOf(plies));
+                tags.put("Termination", o.termination);
+                pgn.write(tags, o.game, o.result);
+                pgn.flush();
+            }
+            if (results != null) {
+                results.write((o.index + 1) + "," + white + "," + black + "," + o.result + "," + o.termination
+                        + "," + plies + "," + o.nodes + "," + o.searchMillis + "\n");
+                results.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        boolean draw = o.result.equals("1/2-1/2");
+        boolean whiteWon = o.result.equals("1-0");
+        if (draw) draws++;
+        else if (whiteWon == o.aIsWhite) wins++;
+        else losses++;
+        finished++;
+        totalNodes += o.nodes;
+        totalSearchMillis += o.searchMillis;
+        totalPlies += plies;
+
+        int every = Math.max(1, games / 20);
+        if (finished % every == 0 && finished < games) report(System.nanoTime() - start, false);
+    }
+
+    private synchronized void report(long elapsedNanos, boolean last) {
+        double secs = elapsedNanos / 1e9;
+        int n = wins + draws + losses;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d/%d partidas | %.2f partidas/s | %,d nós/s por thread | %.0f meios-lances/partida%n",
+                finished, games, finished / Math.max(secs, 1e-9),
+                totalSearchMillis == 0 ? 0 : totalNodes * 1000 / totalSearchMillis,
+                finished == 0 ? 0.0 : (double) totalPlies / finished));
+        if (n > 0) {
+            double score = (wins + 0.5 * draws) / n;
+            double variance = (wins * sq(1 - score) + draws * sq(0.5 - score) + losses * sq(score)) / n;
+            double margin = 1.96 * Math.sqrt(variance / n);
+            sb.append(String.format("A: +%d =%d -%d | pontos %.1f%% ± %.1f%% | Elo %s [%s, %s] (IC 95%%)%n",
+                    wins, draws, losses, 100 * score, 100 * margin,
+                    elo(score), elo(score - margin), elo(score + margin)));
+        }
+        System.out.print(last ? "\n" + sb : sb);
+    }
+
+    private static double sq(double x) { return x * x; }
+
+    // Diferença de Elo para a pontuação esperada (logística); ±inf nos extremos
+    private static String elo(double score) {
+        if (score <= 0) return "-inf";
+        if (score >= 1) return "+inf";
+        return String.format("%+.0f", -400 * Math.log10(1 / score - 1));
+    }
+}
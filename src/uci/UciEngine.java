@@ -0,0 +1,305 @@
+package uci;
+
+import controller.Fen;
+import controller.Game;
+import controller.MoveUndo;
+import engine.ParallelSearch;
+import engine.Search;
+import engine.SearchLimits;
+import engine.Tablebases;
+import engine.TranspositionTable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import model.board.MoveList;
+import model.board.PackedMove;
+
+/**
+ * Front-end UCI (Universal Chess Interface) sobre stdin/stdout, para rodar o
+ * motor em gerenciadores de torneio e GUIs de análise.
+ *
+ * A thread principal só lê comandos; cada "go" roda numa thread de busca
+ * separada, de modo que "stop", "isready" e "quit" são atendidos enquanto a
+ * busca corre (a busca confere o pedido de parada a cada 2048 nós).
+ *
+ * Comandos: uci, isready, ucinewgame, setoption name Hash|Threads value N,
+ * setoption name TablebasePath value DIRETÓRIO,
+ * position startpos|fen ... [moves ...], go [depth|movetime|nodes|wtime|btime|
+ * winc|binc|movestogo|infinite], stop, quit.
+ */
+public final class UciEngine {
+
+    private static final String NAME = "Xadrez Java";
+    private static final int DEFAULT_HASH_MB = 16;
+    private static final int MAX_HASH_MB = 4096;
+    private static final int MAX_THREADS = 256;
+    private static final long NO_CLOCK = Long.MIN_VALUE; // wtime/btime não informados
+
+    private final PrintStream out;
+    private final TranspositionTable tt = new TranspositionTable(DEFAULT_HASH_MB);
+    private final ParallelSearch search = new ParallelSearch(tt, 1);
+    private final Object lock = new Object();
+
+    private Game game = new Game();
+    private Tablebases tablebases;
+    private Thread searchThread;
+    private boolean infinite;      // "go infinite": bestmove só depois de stop (guardado por lock)
+    private boolean stopRequested; // idem
+
+    public UciEngine(PrintStream out) {
+        this.out = out;
+        search.setListener(this::sendInfo);
+    }
+
+    public static void main(String[] args) throws IOException {
+        UciEngine engine = new UciEngine(System.out);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!engine.handle(line)) break;
+        }
+        engine.stopSearch();
+        engine.search.shutdown();
+    }
+
+    /** Trata uma linha de comando; retorna false em "quit". */
+    public boolean handle(String line) {
+        String[] t = line.trim().split("\\s+");
+        switch (t[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author jogo-xadrez-java");
+                send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name TablebasePath type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                tt.clear();
+                game = new Game();
+                game.setTablebases(tablebases);
+                break;
+            case "setoption":
+                stopSearch();
+                setOption(t);
+                break;
+            case "position":
+                stopSearch();
+                position(t);
+                break;
+            case "go":
+                stopSearch();
+                go(t);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "quit":
+                return false;
+            default:
+                break; // comandos desconhecidos são ignorados, como manda o protocolo
+        }
+        return true;
+    }
+
+    private void setOption(String[] t) {
+        String name = value(t, "name");
+        String value = value(t, "value");
+        if (name == null || value == null) return;
+        if (name.equalsIgnoreCase("TablebasePath")) {
+            setTablebasePath(value);
+            return;
+        }
+        try {
+            int n = Integer.parseInt(value);
+            if (name.equalsIgnoreCase("Hash")) tt.resize(Math.max(1, Math.min(n, MAX_HASH_MB)));
+            else if (name.equalsIgnoreCase("Threads")) search.setThreads(Math.max(1, Math.min(n, MAX_THREADS)));
+        } catch (NumberFormatException e) {
+            send("info string valor inválido para " + name + ": " + value);
+        }
+    }
+
+    // Diretório com os arquivos do engine.TablebaseGenerator; vazio ou <empty> desliga
+    private void setTablebasePath(String dir) {
+        try {
+            if (tablebases != null) tablebases.close();
+            tablebases = null;
+            if (!dir.isEmpty() && !dir.equals("<empty>")) {
+                tablebases = new Tablebases(Paths.get(dir));
+                send("info string " + tablebases.size() + " tablebases carregadas de " + dir);
+            }
+        } catch (IOException e) {
+            send("info string tablebases não carregadas: " + e.getMessage());
+        }
+        game.setTablebases(tablebases);
+    }
+
+    private void position(String[] t) {
+        int i = 1;
+        String fen;
+        if (i < t.length && t[i].equals("startpos")) {
+            fen = Fen.START_POSITION;
+            i++;
+        } else if (i < t.length && t[i].equals("fen")) {
+            StringBuilder sb = new StringBuilder();
+            for (i++; i < t.length && !t[i].equals("moves"); i++) sb.append(t[i]).append(' ');
+            fen = sb.toString().trim();
+        } else {
+            return;
+        }
+
+        Game g;
+        try {
+            g = Fen.parse(fen);
+        } catch (RuntimeException e) {
+            send("info string FEN inválida: " + fen);
+            return;
+        }
+        g.setTablebases(tablebases);
+        if (i < t.length && t[i].equals("moves")) {
+            MoveList moves = new MoveList();
+            for (i++; i < t.length; i++) {
+                int m = findMove(g, moves, t[i]);
+                if (m == PackedMove.NONE) {
+                    send("info string lance ilegal: " + t[i]);
+                    break;
+                }
+                g.makeMove(m, new MoveUndo()); // mantém o histórico de chaves (repetições)
+            }
+        }
+        game = g;
+    }
+
+    private static int findMove(Game g, MoveList moves, String uci) {
+        moves.clear();
+        g.generateMoves(moves);
+        for (int j = 0; j < moves.size(); j++) {
+            if (PackedMove.toString(moves.get(j)).equals(uci)) return moves.get(j);
+        }
+        return PackedMove.NONE;
+    }
+
+    private void go(String[] t) {
+        SearchLimits limits = new SearchLimits();
+        long wtime = NO_CLOCK, btime = NO_CLOCK, winc = 0, binc = 0;
+        int movesToGo = 0;
+        boolean inf = false;
+        for (int i = 1; i < t.length; i++) {
+            switch (t[i]) {
+                case "infinite": inf = true; break;
+                case "depth": limits.depth((int) number(t, ++i)); break;
+                case "movetime": limits.moveTime(number(t, ++i)); break;
+                case "nodes": limits.nodes(number(t, ++i)); break;
+                case "wtime": wtime = number(t, ++i); break;
+                case "btime": btime = number(t, ++i); break;
+                case "winc": winc = number(t, ++i); break;
+                case "binc": binc = number(t, ++i); break;
+                case "movestogo": movesToGo = (int) number(t, ++i); break;
+                default: break; // ponder, searchmoves, mate: não suportados
+            }
+        }
+        long time = game.isWhiteToMove() ? wtime : btime;
+        long inc = game.isWhiteToMove() ? winc : binc;
+        if (!inf && limits.getMoveTimeMillis() == 0 && time != NO_CLOCK) {
+            // Relógio zerado ou negativo (a GUI o manda no aperto de tempo): joga já
+            limits.moveTime(time <= 0 ? 1 : allocateTime(time, inc, movesToGo));
+        }
+
+        Game position = game;
+        synchronized (lock) {
+            infinite = inf;
+            stopRequested = false;
+        }
+        long ticket = search.reserve(); // um "stop" logo em seguida vale mesmo antes de a busca começar
+        searchThread = new Thread(() -> {
+            Search.Result r = search.search(position, limits, ticket);
+            synchronized (lock) {
+                // Em "go infinite" o bestmove só pode sair depois do stop
+                while (infinite && !stopRequested) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            }
+            send("bestmove " + PackedMove.toString(r.bestMove)
+                    + (r.pv.length > 1 ? " ponder " + PackedMove.toString(r.pv[1]) : ""));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    // Fatia do relógio: tempo restante / lances até o controle (30 se não informado) + 3/4 do incremento,
+    // nunca mais que metade do restante e com margem para a latência da comunicação
+    static long allocateTime(long remaining, long inc, int movesToGo) {
+        int moves = movesToGo > 0 ? movesToGo : 30;
+        long slice = remaining / moves + inc * 3 / 4;
+        slice = Math.min(slice, remaining / 2);
+        return Math.max(1, slice - 20);
+    }
+
+    /** Interrompe a busca em andamento (se houver) e espera o bestmove ser enviado. */
+    private void stopSearch() {
+        Thread th = searchThread;
+        if (th == null) return;
+        synchronized (lock) {
+            stopRequested = true;
+            lock.notifyAll();
+        }
+        search.stop();
+        try {
+            th.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private void sendInfo(Search.Result r) {
+        StringBuilder sb = new StringBuilder("info depth ").append(r.depth);
+        if (r.isMate()) sb.append(" score mate ").append(r.mateIn());
+        else sb.append(" score cp ").append(r.score);
+        sb.append(" nodes ").append(r.nodes)
+                .append(" nps ").append(r.nps())
+                .append(" time ").append(r.timeMillis)
+                .append(" hashfull ").append(tt.hashfull())
+                .append(" pv");
+        for (int m : r.pv) sb.append(' ').append(PackedMove.toString(m));
+        send(sb.toString());
+    }
+
+    private void send(String s) {
+        synchronized (out) {
+            out.println(s);
+            out.flush();
+        }
+    }
+
+    private static String value(String[] t, String key) {
+        // "setoption name <nome> value <valor>": o nome pode ter espaços
+        StringBuilder sb = null;
+        for (String s : t) {
+            if (sb != null) {
+                if (s.equals("name") || s.equals("value")) break;
+                sb.append(sb.length() == 0 ? "" : " ").append(s);
+            } else if (s.equals(key)) {
+                sb = new StringBuilder();
+            }
+        }
+        return sb == null ? null : sb.toString();
+    }
+
+    private static long number(String[] t, int i) {
+        try {
+            return i < t.length ? Long.parseLong(t[i]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
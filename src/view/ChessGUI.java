@@ -1,8 +1,15 @@
 package view;
 
 import controller.Game;
+import controller.GameStatus;
+import engine.OpeningBook;
+import engine.Tablebases;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TimerTask;
@@ -29,6 +36,11 @@ public class ChessGUI extends JFrame {
     private int secondsElapsed = 0;
     private java.util.Timer gameTimer;
 
+    // Busca da IA em andamento (só tocados na EDT); a geração muda a cada busca e reinício,
+    // e um lance de uma geração antiga é descartado
+    private Thread aiThread;
+    private int aiGeneration;
+
     // Painéis para peças capturadas
     private final JPanel capturedWhitePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 2));
     private final JPanel capturedBlackPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 2));
@@ -41,6 +53,25 @@ public class ChessGUI extends JFrame {
         this.game.setHumanColor(playerIsWhite);
         this.game.setVsAI(vsAI);
 
+        // Livro de aberturas opcional (gerado pelo engine.BookBuilder) na pasta de execução
+        Path bookFile = Paths.get("book.bin");
+        if (Files.isRegularFile(bookFile)) {
+            try {
+                game.setOpeningBook(new OpeningBook(bookFile));
+            } catch (IOException e) {
+                System.err.println("Livro de aberturas ignorado: " + e.getMessage());
+            }
+        }
+        // Tablebases opcionais (geradas pelo engine.TablebaseGenerator) na pasta "tablebases"
+        Path tablebaseDir = Paths.get("tablebases");
+        if (Files.isDirectory(tablebaseDir)) {
+            try {
+                game.setTablebases(new Tablebases(tablebaseDir));
+            } catch (IOException e) {
+                System.err.println("Tablebases ignoradas: " + e.getMessage());
+            }
+        }
+
         setTitle("Chess Game");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
 
@@ -91,12 +122,13 @@ public class ChessGUI extends JFrame {
                     JOptionPane.showMessageDialog(ChessGUI.this, "O jogo acabou.");
                     return;
                 }
+                if (aiThread != null && aiThread.isAlive()) return; // vez da IA
 
                 int row = e.getY() / TILE_SIZE;
                 int col = e.getX() / TILE_SIZE;
                 if (row < 0 || row > 7 || col < 0 || col > 7) return;
 
-                Position clicked = new Position(row, col);
+                Position clicked = Position.of(row, col);
                 Piece clickedPiece = game.getBoard().get(clicked);
 
                 if (selected == null) {
@@ -112,19 +144,16 @@ public class ChessGUI extends JFrame {
                             if (p.equals(clicked)) {
                                 Piece captured = game.getBoard().get(clicked);
                                 Move mv = Move.normal(selected, clicked, moving, captured);
+                                if (moving.getType() == Piece.PAWN && (clicked.getRow() == 0 || clicked.getRow() == 7)) {
+                                    mv = Move.promotion(selected, clicked, moving, captured, askPromotion());
+                                }
                                 if (game.makeMove(mv)) {
                                     lastFrom = selected;
                                     lastTo = clicked;
                                     moveMade = true;
 
                                     // Atualiza status
-                                    statusLabel.setText("Bom-jogo!");
-                                    if (game.inCheck(game.isWhiteToMove())) statusLabel.setText("Xeque!");
-                                    if (game.isCheckmate(game.isWhiteToMove())) {
-                                        JOptionPane.showMessageDialog(ChessGUI.this,
-                                                "Xeque-mate! Vencedor: " + (moving.isWhite() ? "Brancas" : "Pretas"));
-                                        if (gameTimer != null) gameTimer.cancel();
-                                    }
+                                    updateStatus();
 
                                     // Atualiza peças capturadas
                                     if (captured != null) {
@@ -160,29 +189,63 @@ public class ChessGUI extends JFrame {
         setVisible(true);
     }
 
+    // Escolha da peça de promoção (o Game só lê Move.getPromotion e não abre diálogos)
+    private char askPromotion() {
+        String[] options = {"Rainha", "Torre", "Bispo", "Cavalo"};
+        String choice = (String) JOptionPane.showInputDialog(
+                ChessGUI.this,
+                "Escolha a peça para promoção:",
+                "Promoção de Peão",
+                JOptionPane.PLAIN_MESSAGE,
+                null,
+                options,
+                options[0]
+        );
+        switch (choice == null ? "" : choice) {
+            case "Torre": return 'R';
+            case "Bispo": return 'B';
+            case "Cavalo": return 'N';
+            default: return 'Q';
+        }
+    }
+
+    // Rótulo e aviso de fim de partida a partir do status (calculado uma vez por posição pelo Game);
+    // em finais das tablebases, o rótulo traz também o resultado exato
+    private void updateStatus() {
+        GameStatus status = game.getStatus();
+        String verdict = game.tablebaseVerdict();
+        if (status.isDraw()) statusLabel.setText(status.getDescription());
+        else if (status.isCheck()) statusLabel.setText(verdict == null ? "Xeque!" : "Xeque! " + verdict);
+        else statusLabel.setText(verdict == null ? "Bom-jogo!" : verdict);
+        if (status == GameStatus.CHECKMATE) {
+            JOptionPane.showMessageDialog(ChessGUI.this,
+                    "Xeque-mate! Vencedor: " + (game.isWhiteToMove() ? "Pretas" : "Brancas"));
+        } else if (status.isDraw()) {
+            JOptionPane.showMessageDialog(ChessGUI.this, status.getDescription());
+        }
+        if (status.isGameOver() && gameTimer != null) gameTimer.cancel();
+    }
+
     private void executeAIMove(ChessPanel boardPanel) {
-        new Thread(() -> {
-            try {
-                Thread.sleep(1000); // atraso de 1 segundo
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            }
+        cancelAIMove();
+        // A cópia é tirada aqui, na EDT: livro e busca (limitada por tempo) rodam sobre ela
+        // fora da EDT, sem tocar no jogo que a tela continua usando; só o lance volta para cá
+        Game snapshot = game.copy();
+        long key = snapshot.positionKey();
+        int generation = ++aiGeneration;
+        aiThread = new Thread(() -> {
+            Move ai = game.getAIMove(snapshot);
 
             SwingUtilities.invokeLater(() -> {
-                Move ai = game.getAIMove();
-                if (ai != null) {
+                // Descarta se outra busca começou ou o jogo mudou (reinício) desde a cópia
+                if (ai != null && generation == aiGeneration && game.positionKey() == key) {
+                    aiThread = null;
                     Piece captured = game.getBoard().get(ai.getTo());
                     game.makeMove(ai);
                     lastFrom = ai.getFrom();
                     lastTo = ai.getTo();
 
-                    statusLabel.setText("Bom-jogo!");
-                    if (game.inCheck(game.isWhiteToMove())) statusLabel.setText("Xeque!");
-                    if (game.isCheckmate(game.isWhiteToMove())) {
-                        JOptionPane.showMessageDialog(ChessGUI.this,
-                                "Xeque-mate! Vencedor: " + (game.isWhiteToMove() ? "Pretas" : "Brancas"));
-                        if (gameTimer != null) gameTimer.cancel();
-                    }
+                    updateStatus();
 
                     if (captured != null) {
                         if (captured.isWhite()) {
@@ -199,10 +262,31 @@ public class ChessGUI extends JFrame {
                     boardPanel.repaint();
                 }
             });
-        }).start();
+        }, "ai-search");
+        aiThread.setDaemon(true);
+        aiThread.start();
+    }
+
+    // Interrompe a busca da IA em andamento e espera a thread terminar; o lance que ela ainda
+    // entregar à EDT já é de uma geração velha e será descartado
+    private void cancelAIMove() {
+        Thread th = aiThread;
+        aiThread = null;
+        aiGeneration++;
+        if (th == null) return;
+        try {
+            // Repete o pedido: a thread pode ainda não ter entrado na busca quando o primeiro chega
+            while (th.isAlive()) {
+                game.stopAIMove();
+                th.join(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private void restartGame() {
+        cancelAIMove();
         game.newGame();
         secondsElapsed = 0;
         timerLabel.setText("Tempo: 00:00");
@@ -296,7 +380,7 @@ public class ChessGUI extends JFrame {
 
             for (int r = 0; r < 8; r++) {
                 for (int c = 0; c < 8; c++) {
-                    Position pos = new Position(r, c);
+                    Position pos = Position.of(r, c);
                     Piece p = game.getBoard().get(pos);
                     if (p != null) {
                         ImageIcon icon = ImageUtil.getPieceIcon(p.isWhite(), p.getSymbol(), TILE_SIZE);
@@ -0,0 +1,80 @@
+package controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import model.pieces.Piece;
+
+/**
+ * Verificações do PgnReader (sem framework de testes, como o Perft):
+ *   java -cp bin controller.PgnReaderTest
+ */
+public final class PgnReaderTest {
+
+    public static void main(String[] args) throws IOException {
+        zeroCastling();
+        moveNumbers();
+        canonicalHistory();
+        System.out.println("PgnReaderTest: ok");
+    }
+
+    // "0-0" e "0-0-0" (com zeros) são roques, não números de lance
+    static void zeroCastling() throws IOException {
+        PgnGame g = readOne("[Event \"?\"]\n\n1. d4 d5 2. Nc3 Nc6 3. Bf4 Bf5 4. Qd2 Qd7"
+                + " 5. 0-0-0 e6 6. e3 Nf6 7. Nf3 Be7 8. Be2 0-0 *\n");
+        check(g.isValid(), "roque com zeros rejeitado: " + g.getError());
+        check(g.getGame().history().size() == 16, "meios-lances: " + g.getGame().history().size());
+        check(isKing(g, 58, true) && isRook(g, 59, true), "O-O-O das brancas não foi feito");
+        check(isKing(g, 6, false) && isRook(g, 5, false), "O-O das pretas não foi feito");
+
+        g = readOne("1.e4 e5 2.Nf3 Nc6 3.Bc4 Bc5 4.0-0 Nf6 *\n");
+        check(g.isValid(), "\"4.0-0\" rejeitado: " + g.getError());
+        check(isKing(g, 62, true), "O-O das brancas não foi feito");
+    }
+
+    // "12.", "12...", "12...e5" e números soltos continuam sendo ignorados
+    static void moveNumbers() throws IOException {
+        PgnGame g = readOne("1. e4 1... e5 2.Nf3 2...Nc6 3 Bb5 a6!? 1-0\n");
+        check(g.isValid(), "números de lance: " + g.getError());
+        check(g.getGame().history().size() == 6, "meios-lances: " + g.getGame().history().size());
+        check(g.getResult().equals("1-0"), "resultado: " + g.getResult());
+    }
+
+    // Lances longos, roque com zeros e xeque sem "+" voltam em SAN canônico no PgnWriter
+    static void canonicalHistory() throws IOException {
+        PgnGame g = readOne("1. e2-e4 e5 2. Ng1f3 Nc6 3. Bc4 Bc5 4. 0-0 Bxf2 *\n");
+        check(g.isValid(), "partida não normalizada lida: " + g.getError());
+        check(g.moveCount() == 8, "lances resolvidos: " + g.moveCount());
+        StringWriter out = new StringWriter();
+        try (PgnWriter w = new PgnWriter(out)) {
+            w.write(g);
+        }
+        String text = out.toString();
+        String movetext = text.substring(text.indexOf("\n\n") + 2).trim();
+        check(movetext.equals("1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. O-O Bxf2+ *"), "movetext reescrito: " + movetext);
+    }
+
+    private static PgnGame readOne(String pgn) throws IOException {
+        byte[] bytes = pgn.getBytes(StandardCharsets.UTF_8);
+        try (PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+            PgnGame g = reader.next();
+            check(g != null, "nenhuma partida lida");
+            return g;
+        }
+    }
+
+    private static boolean isKing(PgnGame g, int sq, boolean white) { return is(g, sq, white, Piece.KING); }
+
+    private static boolean isRook(PgnGame g, int sq, boolean white) { return is(g, sq, white, Piece.ROOK); }
+
+    private static boolean is(PgnGame g, int sq, boolean white, int type) {
+        Piece p = g.getGame().getBoard().get(sq);
+        return p != null && p.isWhite() == white && p.getType() == type;
+    }
+
+    static void check(boolean ok, String message) {
+        if (!ok) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,103 @@
+package engine;
+
+import controller.Fen;
+import controller.Game;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.board.MoveList;
+
+/**
+ * Verificações da busca paralela (sem framework de testes, como o Perft):
+ *   java -cp bin engine.ParallelSearchTest
+ */
+public final class ParallelSearchTest {
+
+    private static final String[] POSITIONS = {
+            Fen.START_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+    };
+
+    public static void main(String[] args) throws Exception {
+        ageAdvancesOncePerSearch();
+        concurrentCallsAreSerialized();
+        agreesWithSingleThread();
+        System.out.println("ParallelSearchTest: ok");
+    }
+
+    // Todas as threads compartilham a TT: a idade avança uma vez por busca, não uma por thread
+    static void ageAdvancesOncePerSearch() {
+        TranspositionTable tt = new TranspositionTable(4);
+        ParallelSearch search = new ParallelSearch(tt, 8);
+        try {
+            for (int i = 1; i <= 3; i++) {
+                int before = tt.age();
+                search.search(new Game(), new SearchLimits().depth(5));
+                check(tt.age() == ((before + 1) & 63), "busca " + i + " com 8 threads: idade " + before + " -> " + tt.age());
+            }
+            int before = tt.age();
+            new Search(new Game(), tt).search(new SearchLimits().depth(3));
+            check(tt.age() == ((before + 1) & 63), "Search isolada: idade " + before + " -> " + tt.age());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    // Chamadas simultâneas à mesma ParallelSearch (ex.: duas buscas da IA) não podem
+    // compartilhar os workers: cada uma devolve um lance legal da sua posição
+    static void concurrentCallsAreSerialized() throws Exception {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(4), 3);
+        ExecutorService callers = Executors.newFixedThreadPool(POSITIONS.length);
+        try {
+            for (int round = 0; round < 5; round++) {
+                List<Future<Search.Result>> results = new ArrayList<>();
+                for (String fen : POSITIONS) {
+                    results.add(callers.submit(() -> search.search(Fen.parse(fen), new SearchLimits().depth(4))));
+                }
+                for (int i = 0; i < POSITIONS.length; i++) {
+                    int move = results.get(i).get().bestMove;
+                    check(isLegal(Fen.parse(POSITIONS[i]), move), "lance ilegal em buscas simultâneas: " + POSITIONS[i]);
+                }
+            }
+        } finally {
+            callers.shutdownNow();
+            search.shutdown();
+        }
+    }
+
+    // Em profundidade fixa, as ajudantes só adiantam entradas na TT: a thread principal
+    // chega ao mesmo valor da busca com uma thread, com um lance legal
+    static void agreesWithSingleThread() {
+        for (String fen : POSITIONS) {
+            Search.Result one = new Search(Fen.parse(fen), new TranspositionTable(16)).search(new SearchLimits().depth(5));
+            for (int round = 0; round < 3; round++) {
+                ParallelSearch search = new ParallelSearch(new TranspositionTable(16), 4);
+                try {
+                    Search.Result many = search.search(Fen.parse(fen), new SearchLimits().depth(5));
+                    check(isLegal(Fen.parse(fen), many.bestMove), "lance ilegal com 4 threads: " + fen);
+                    check(many.depth == 5, "profundidade com 4 threads: " + many.depth + " em " + fen);
+                    check(many.score == one.score, "valor com 4 threads " + many.score + " != " + one.score + " em " + fen);
+                } finally {
+                    search.shutdown();
+                }
+            }
+        }
+    }
+
+    static boolean isLegal(Game game, int move) {
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) return true;
+        }
+        return false;
+    }
+
+    static void check(boolean ok, String message) {
+        if (!ok) throw new AssertionError(message);
+    }
+}
@@ -0,0 +1,95 @@
+package uci;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Verificações do front-end UCI (sem framework de testes, como o Perft):
+ *   java -cp bin uci.UciEngineTest
+ */
+public final class UciEngineTest {
+
+    public static void main(String[] args) {
+        // System.exit também na falha: threads de busca presas não seguram a JVM
+        try {
+            stopRightAfterGoInfinite();
+            stopDoesNotLeakIntoNextSearch();
+            negativeClockMovesAtOnce();
+        } catch (Throwable e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.out.println("UciEngineTest: ok");
+        System.exit(0);
+    }
+
+    // "go infinite" seguido de imediato por "stop": o stop não pode se perder antes de a busca começar
+    static void stopRightAfterGoInfinite() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            String out = run(10_000, "uci", "position startpos", "go infinite", "stop");
+            check(out.contains("\nbestmove "), "sem bestmove depois de go infinite + stop (rodada " + round + ")");
+        }
+    }
+
+    // O stop do "go" anterior não interrompe a busca seguinte
+    static void stopDoesNotLeakIntoNextSearch() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        UciEngine engine = new UciEngine(out);
+        for (String c : new String[]{"position startpos", "go infinite", "stop", "position startpos", "go depth 4"}) {
+            engine.handle(c);
+        }
+        String text = "";
+        for (long end = System.currentTimeMillis() + 10_000; System.currentTimeMillis() < end; Thread.sleep(10)) {
+            synchronized (out) {
+                text = bytes.toString(StandardCharsets.UTF_8);
+            }
+            if (text.split("bestmove", -1).length == 3) break;
+        }
+        check(text.contains("info depth 4 "), "a busca depois do stop não chegou à profundidade 4:\n" + text);
+        engine.handle("quit");
+    }
+
+    // wtime/btime negativos ou zero: joga de imediato em vez de pensar sem limite
+    static void negativeClockMovesAtOnce() throws Exception {
+        for (String clock : new String[]{"wtime -350 btime 60000", "wtime 0 btime 60000"}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+            UciEngine engine = new UciEngine(out);
+            engine.handle("position startpos");
+            engine.handle("go " + clock);
+            String text = "";
+            for (long end = System.currentTimeMillis() + 2_000; System.currentTimeMillis() < end; Thread.sleep(10)) {
+                synchronized (out) {
+                    text = bytes.toString(StandardCharsets.UTF_8);
+                }
+                if (text.contains("bestmove")) break;
+            }
+            check(text.contains("bestmove"), "sem bestmove em 2 s com go " + clock);
+            engine.handle("quit");
+        }
+    }
+
+    // Roda os comandos numa thread e devolve a saída; falha se não terminarem no prazo
+    static String run(long timeoutMillis, String... commands) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        UciEngine engine = new UciEngine(out);
+        Thread t = new Thread(() -> {
+            for (String c : commands) engine.handle(c);
+        }, "uci-test");
+        t.setDaemon(true);
+        t.start();
+        t.join(timeoutMillis);
+        check(!t.isAlive(), "comandos travados: " + String.join(" | ", commands));
+        engine.handle("quit");
+        synchronized (out) {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    static void check(boolean ok, String message) {
+        if (!ok) throw new AssertionError(message);
+    }
+}